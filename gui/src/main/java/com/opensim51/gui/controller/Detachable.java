@@ -0,0 +1,8 @@
+package com.opensim51.gui.controller;
+
+// called when the window is closed, the view removes the listeners it added to the simulator
+public interface Detachable {
+
+    void detach();
+
+}
@@ -15,7 +15,7 @@ import javafx.scene.layout.GridPane;
 import java.util.Arrays;
 import java.util.List;
 
-public class InterruptController implements Updatable, MainWindowDependant {
+public class InterruptController implements Updatable, MainWindowDependant, SimulatorDependant {
 
     @FXML
     private TableView<Interrupt> tableView;
@@ -41,7 +41,7 @@ public class InterruptController implements Updatable, MainWindowDependant {
     @FXML
     private GridPane flagsGridPane;
 
-    private final InternalData internalData = Simulator.getInstance().getInternalData();
+    private InternalData internalData;
 
     private MainWindow mainWindow;
 
@@ -77,8 +77,6 @@ public class InterruptController implements Updatable, MainWindowDependant {
                 }
             }
         });
-
-        update();
     }
 
     @Override
@@ -109,6 +107,11 @@ public class InterruptController implements Updatable, MainWindowDependant {
         this.mainWindow = mainWindow;
     }
 
+    @Override
+    public void setSimulator(Simulator simulator) {
+        this.internalData = simulator.getInternalData();
+    }
+
     private CheckBox createCheckBox(String label, InternalData.Bit bit) {
         CheckBox checkBox = new CheckBox(label);
         checkBox.setSelected(bit.getValue());
@@ -13,10 +13,14 @@ import com.opensim51.simulator.ExecutionListenerAdapter;
 import com.opensim51.simulator.Simulator;
 import com.opensim51.simulator.memory.InternalData;
 import com.opensim51.simulator.memory.datatype.UInt16;
-import com.opensim51.simulator.memory.datatype.UInt8;
+import com.opensim51.simulator.sys.Breakpoints;
+import com.opensim51.simulator.sys.History;
+import com.opensim51.simulator.sys.RunStatus;
+import com.opensim51.simulator.sys.StopReason;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.event.Event;
 import javafx.event.EventHandler;
@@ -55,7 +59,12 @@ import java.util.function.IntFunction;
 
 public class MainWindow {
 
-    private final Simulator simulator = Simulator.getInstance();
+    // a checkpoint about every 10 ms of a 12 MHz device, at most 64 MiB for all of them
+    private static final long HISTORY_INTERVAL = 10_000;
+    private static final long HISTORY_BUDGET = 64L * 1024 * 1024;
+
+    // every main window drives a simulator of its own
+    private final Simulator simulator = new Simulator();
     private final Map<String, Stage> shownWindows = new HashMap<>();
     private final Map<String, Stage> shownPortWindows = new HashMap<>();
     private final Map<String, Stage> shownTimerWindows = new HashMap<>();
@@ -77,6 +86,10 @@ public class MainWindow {
     @FXML
     private Button stepButton;
     @FXML
+    private Button stepBackButton;
+    @FXML
+    private Button runBackButton;
+    @FXML
     private MenuItem interruptMenuItem;
     @FXML
     private MenuItem timer0MenuItem;
@@ -115,7 +128,9 @@ public class MainWindow {
     @FXML
     public void initialize() {
         registersController.setMainWindow(this);
+        registersController.setSimulator(simulator);
         memoryController.setMainWindow(this);
+        memoryController.setSimulator(simulator);
         memoryController.setMemoryTableContainer(tabPane);
 
         interruptMenuItem.setOnAction(event -> showWindow("Interrupt System", "interrupt.fxml"));
@@ -143,6 +158,7 @@ public class MainWindow {
         });
 
         IntFunction<Node> breakpointFactory = new BreakpointFactory(breakpointEditorLines);
+        breakpointEditorLines.addListener((ListChangeListener<Integer>) change -> updateBreakpoints());
         IntFunction<Node> selectedLineArrowFactory = new SelectedLineArrowFactory(editor.currentParagraphProperty());
         IntFunction<Node> executionPointArrowFactory = new ExecutionPointArrowFactory(executionPointEditorLine);
         IntFunction<Node> lineNumberFactory = LineNumberFactory.get(editor);
@@ -210,10 +226,11 @@ public class MainWindow {
                 Assembler assembler = new Mcu8051Assembler();
                 assembler.assemble(editor.getText(), (line, locationCounter, machineCodes) -> {
                     executableEditorLines.put(UInt16.valueOf(locationCounter), line - 1);
-                    for (Integer machineCode : machineCodes) {
-                        simulator.getExternalCode().setCellValue(locationCounter, UInt8.valueOf(machineCode));
-                        locationCounter++;
+                    byte[] bytes = new byte[machineCodes.size()];
+                    for (int i = 0; i < bytes.length; i++) {
+                        bytes[i] = machineCodes.get(i).byteValue();
                     }
+                    simulator.getExternalCode().write(locationCounter, bytes, 0, bytes.length);
                 }, (line, charPositionInLine, message) -> {
                     statusBarTextField.setText(line + ":" + charPositionInLine + " " + message);
                     throw new IllegalStateException("translation canceled due to a syntax error");
@@ -228,6 +245,7 @@ public class MainWindow {
                 e.printStackTrace();
             }
 
+            updateBreakpoints();
             updateUserInterface();
         });
 
@@ -249,25 +267,25 @@ public class MainWindow {
             memoryController.update();
         });
 
-        ProgramExecutionService executionService = new ProgramExecutionService();
-        ExecutionListener executionListener = new ExecutionListenerAdapter(true) {
-            @Override
-            public void process(UInt16 programCounter) {
-                if (uiThreadReadinessFlag.getAndSet(false)) {
-                    updateUserInterfaceFromBackgroundThread(programCounter, executionService);
-                }
+        ProgramExecutionService executionService = new ProgramExecutionService(simulator);
+        executionService.setSliceListener(status -> {
+            if (uiThreadReadinessFlag.getAndSet(false)) {
+                updateUserInterfaceFromBackgroundThread(UInt16.valueOf(status.getPc()));
             }
-        };
-
-        executionService.setExecutionListener(executionListener);
-        executionService.setOnCancelled(stateEvent -> executionListener.cancel());
+        });
 
-        runButton.setOnAction(event -> {
-            executionListener.reset();
-            executionService.start();
+        // the program stopped at a breakpoint, the last slice may have been skipped by the user interface
+        executionService.setOnSucceeded(stateEvent -> {
+            executionPointEditorLine.set(executableEditorLines.get(simulator.getProgramCounter()));
+            updateUserInterface();
+            executionService.reset();
         });
 
+        runButton.setOnAction(event -> executionService.start());
+
+        // the slice running when the service is cancelled stops at once and is the last one
         stopButton.setOnAction(event -> {
+            simulator.cancel();
             executionService.cancel();
             executionService.reset();
         });
@@ -286,25 +304,39 @@ public class MainWindow {
 
         stepButton.setOnAction(event -> simulator.step(oneTimeExecutionListener));
 
+        // going back runs the program forward from a checkpoint, so not while it is running
+        simulator.setHistory(new History(HISTORY_INTERVAL, HISTORY_BUDGET));
+        stepBackButton.setOnAction(event -> {
+            if (!executionService.isRunning()) {
+                showStoppedAt(simulator.stepBack());
+            }
+        });
+        runBackButton.setOnAction(event -> {
+            if (!executionService.isRunning()) {
+                showStoppedAt(simulator.reverseContinue());
+            }
+        });
+
         displayExampleMenuItem.setOnAction(event -> editor.replaceText(readFileToString("examples/display.A51")));
         registerBanksExampleMenuItem.setOnAction(event -> editor.replaceText(readFileToString("examples/register_banks.A51")));
 
         exitMenuItem.setOnAction(event -> primaryStage.close());
     }
 
-    public void updateUserInterfaceFromBackgroundThread(UInt16 programCounter, ProgramExecutionService executionService) {
+    private void showStoppedAt(RunStatus status) {
+        executionPointEditorLine.set(executableEditorLines.getOrDefault(UInt16.valueOf(status.getPc()), -1));
+        statusBarTextField.setText(status.getStopReason() == StopReason.HISTORY_START
+                ? "No earlier state is kept" : "");
+        updateUserInterface();
+    }
+
+    public void updateUserInterfaceFromBackgroundThread(UInt16 programCounter) {
         Platform.runLater(() -> {
 
             // highlight execution point editor line
             int lineNumber = executableEditorLines.get(programCounter);
             executionPointEditorLine.set(lineNumber);
 
-            // stop background thread if execution point editor line has a breakpoint
-            if (breakpointEditorLines.contains(lineNumber)) {
-                executionService.cancel();
-                executionService.reset();
-            }
-
             updateUserInterface();
 
             // unblock UI updates
@@ -323,6 +355,17 @@ public class MainWindow {
         }
     }
 
+    // the simulator stops at the addresses of the editor lines with a breakpoint by itself
+    private void updateBreakpoints() {
+        Breakpoints breakpoints = simulator.getBreakpoints();
+        breakpoints.clearAll();
+        for (Map.Entry<UInt16, Integer> entry : executableEditorLines.entrySet()) {
+            if (breakpointEditorLines.contains(entry.getValue())) {
+                breakpoints.set(entry.getKey().toInt());
+            }
+        }
+    }
+
     public void setStage(Stage primaryStage) {
         this.primaryStage = primaryStage;
     }
@@ -362,6 +405,7 @@ public class MainWindow {
             controller.setMainWindow(this);
             controller.setPortNumber(portNumber);
             controller.setPort(port);
+            controller.setSimulator(simulator);
             controller.update();
 
             Scene scene = new Scene(root);
@@ -395,6 +439,7 @@ public class MainWindow {
             TimerController controller = loader.getController();
             controller.setTimerNumber(timerNumber);
             controller.setMainWindow(this);
+            controller.setSimulator(simulator);
             controller.initializeController();
 
             Scene scene = new Scene(root);
@@ -421,17 +466,26 @@ public class MainWindow {
             stage.initStyle(StageStyle.UTILITY);
             stage.setResizable(false);
             stage.setAlwaysOnTop(true);
-            stage.setOnCloseRequest(event -> shownWindows.remove(title));
 
             FXMLLoader loader = new FXMLLoader(getClass().getResource(resource));
             Parent root = loader.load();
             Object controller = loader.getController();
+            stage.setOnCloseRequest(event -> {
+                shownWindows.remove(title);
+                if (controller instanceof Detachable) {
+                    ((Detachable) controller).detach();
+                }
+            });
 
             loadedControllers.put(title, controller);
             if (controller instanceof MainWindowDependant) {
                 ((MainWindowDependant) controller).setMainWindow(this);
             }
 
+            if (controller instanceof SimulatorDependant) {
+                ((SimulatorDependant) controller).setSimulator(simulator);
+            }
+
             if (controller instanceof Updatable) {
                 ((Updatable) controller).update();
             }
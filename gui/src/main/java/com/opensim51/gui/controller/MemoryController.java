@@ -19,7 +19,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-public class MemoryController implements Updatable, MainWindowDependant {
+public class MemoryController implements Updatable, MainWindowDependant, SimulatorDependant {
 
     private static final String REGEX_ADDRESS_PREFIX = "([dDcCxX]:)";
 
@@ -43,7 +43,7 @@ public class MemoryController implements Updatable, MainWindowDependant {
     @FXML
     private TableView<MemoryRow> memoryTableView;
 
-    private final Simulator simulator = Simulator.getInstance();
+    private Simulator simulator;
 
     private MainWindow mainWindow;
 
@@ -85,9 +85,6 @@ public class MemoryController implements Updatable, MainWindowDependant {
         });
 
         initializeMemoryTableView();
-
-        // fill the table with data
-        update();
     }
 
     private void initializeMemoryTableView() {
@@ -182,6 +179,14 @@ public class MemoryController implements Updatable, MainWindowDependant {
         this.mainWindow = mainWindow;
     }
 
+    @Override
+    public void setSimulator(Simulator simulator) {
+        this.simulator = simulator;
+
+        // fill the table with data
+        update();
+    }
+
     void setMemoryTableContainer(TabPane memoryTableContainer) {
         this.memoryTableContainer = memoryTableContainer;
     }
@@ -218,6 +223,9 @@ public class MemoryController implements Updatable, MainWindowDependant {
         // a list of the length tableRowLength that contains a part of the memory data in form of HEX strings
         List<String> row = new ArrayList<>();
 
+        byte[] cells = new byte[memory.getSize()];
+        memory.read(0, cells, 0, cells.length);
+
         int address = requestedAddress;
         do {
 
@@ -228,7 +236,7 @@ public class MemoryController implements Updatable, MainWindowDependant {
             }
 
             // a memory cell value in form of a HEX string
-            String hex = IntegerUtil.toString(memory.getCellValue(address).toInt(), RADIX_HEX, 2);
+            String hex = IntegerUtil.toString(cells[address] & 0xff, RADIX_HEX, 2);
             row.add(hex.toUpperCase());
 
             // as soon as the row reaches the size of tableRowLength, it is combined in a separate entity that contains
@@ -1,8 +1,8 @@
 package com.opensim51.gui.controller;
 
 import com.opensim51.gui.util.IntegerUtil;
+import com.opensim51.simulator.Simulator;
 import com.opensim51.simulator.memory.InternalData;
-import com.opensim51.simulator.memory.datatype.UInt8;
 import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.CheckBox;
@@ -11,7 +11,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.input.KeyCode;
 import org.jetbrains.annotations.NotNull;
 
-public class PortController implements Updatable, MainWindowDependant {
+public class PortController implements Updatable, MainWindowDependant, SimulatorDependant {
 
     @FXML
     private Label portNameLabel;
@@ -47,13 +47,15 @@ public class PortController implements Updatable, MainWindowDependant {
 
     private MainWindow mainWindow;
 
+    private Simulator simulator;
+
     @FXML
     public void initialize() {
         valueTextField.setOnKeyPressed(event -> {
             if (event.getCode() == KeyCode.ENTER) {
                 String text = valueTextField.getText();
                 if (IntegerUtil.isValid(text)) {
-                    port.setValue(UInt8.valueOf(IntegerUtil.parseInt(text)));
+                    setInput(IntegerUtil.parseInt(text) & 0xff);
                     mainWindow.updateUserInterface();
                 }
             }
@@ -86,6 +88,11 @@ public class PortController implements Updatable, MainWindowDependant {
         this.mainWindow = mainWindow;
     }
 
+    @Override
+    public void setSimulator(Simulator simulator) {
+        this.simulator = simulator;
+    }
+
     void setPortNumber(String portNumber) {
         portNameLabel.setText("P" + portNumber + ":");
     }
@@ -97,10 +104,18 @@ public class PortController implements Updatable, MainWindowDependant {
     @NotNull
     private ChangeListener<Boolean> createChangeListener(int position) {
         return (observable, oldValue, newValue) -> {
-            port.setBitValue(position, newValue);
+            int value = port.getValue().toInt();
+            setInput(newValue ? value | 1 << position : value & ~(1 << position));
             valueTextField.setText(IntegerUtil.toStringWithPrefix(port.getValue().toInt(), 16, 2));
             mainWindow.updateUserInterface();
         };
     }
 
+    // pins set by hand go through the simulator so that a recording sees them
+    private void setInput(int value) {
+        if (value != port.getValue().toInt()) {
+            simulator.setInput(port.getAddress(), value);
+        }
+    }
+
 }
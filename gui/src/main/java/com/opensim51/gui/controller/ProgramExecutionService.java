@@ -1,24 +1,55 @@
 package com.opensim51.gui.controller;
 
-import com.opensim51.simulator.ExecutionListener;
 import com.opensim51.simulator.Simulator;
+import com.opensim51.simulator.sys.RunStatus;
+import com.opensim51.simulator.sys.StopReason;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
 class ProgramExecutionService extends Service<Void> {
 
-    private Simulator simulator = Simulator.getInstance();
+    // the instructions run between two looks at the user interface
+    private static final long SLICE_INSTRUCTIONS = 10_000;
+
+    private final Simulator simulator;
 
-    private ExecutionListener executionListener;
+    private Consumer<RunStatus> sliceListener;
 
-    void setExecutionListener(ExecutionListener executionListener) {
-        this.executionListener = executionListener;
+    ProgramExecutionService(Simulator simulator) {
+        this.simulator = simulator;
+
+        // a run started right after a stop waits for the last slice of the stopped one
+        setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "program execution");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    void setSliceListener(Consumer<RunStatus> sliceListener) {
+        this.sliceListener = sliceListener;
     }
 
     protected Task<Void> createTask() {
         return new Task<Void>() {
             protected Void call() {
-                simulator.run(executionListener);
+
+                // a stop between two slices is seen by the task, one during a slice by the simulator
+                RunStatus status;
+                do {
+                    status = simulator.runSlice(SLICE_INSTRUCTIONS, Long.MAX_VALUE);
+                    sliceListener.accept(status);
+                } while (status.getStopReason() == StopReason.SLICE_ENDED && !isCancelled());
+
+                try {
+                    simulator.saveTranslations();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
                 return null;
             }
         };
@@ -14,7 +14,7 @@ import javafx.scene.control.TreeTableView;
 import javafx.scene.control.cell.TextFieldTreeTableCell;
 import org.apache.commons.lang3.StringUtils;
 
-public class RegistersController implements Updatable, MainWindowDependant {
+public class RegistersController implements Updatable, MainWindowDependant, SimulatorDependant {
 
     private static final String TREE_ITEM_NAME_PC = "pc";
 
@@ -29,7 +29,7 @@ public class RegistersController implements Updatable, MainWindowDependant {
     @FXML
     private TreeTableColumn<TreeTableViewEntry, String> valueColumn;
 
-    private final Simulator simulator = Simulator.getInstance();
+    private Simulator simulator;
 
     private MainWindow mainWindow;
 
@@ -51,6 +51,16 @@ public class RegistersController implements Updatable, MainWindowDependant {
 
             mainWindow.updateUserInterface();
         });
+    }
+
+    public void setMainWindow(MainWindow mainWindow) {
+        this.mainWindow = mainWindow;
+    }
+
+    // the register tree refers to the cells of this simulator
+    @Override
+    public void setSimulator(Simulator simulator) {
+        this.simulator = simulator;
 
         InternalData id = simulator.getInternalData();
 
@@ -97,10 +107,6 @@ public class RegistersController implements Updatable, MainWindowDependant {
         registersView.setRoot(root);
     }
 
-    public void setMainWindow(MainWindow mainWindow) {
-        this.mainWindow = mainWindow;
-    }
-
     @Override
     public void update() {
         registersView.refresh();
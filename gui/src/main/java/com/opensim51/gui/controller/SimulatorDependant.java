@@ -0,0 +1,10 @@
+package com.opensim51.gui.controller;
+
+import com.opensim51.simulator.Simulator;
+
+// given to the controller right after it is loaded
+public interface SimulatorDependant {
+
+    void setSimulator(Simulator simulator);
+
+}
@@ -15,7 +15,7 @@ import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import org.jetbrains.annotations.NotNull;
 
-public class TimerController implements Updatable, MainWindowDependant {
+public class TimerController implements Updatable, MainWindowDependant, SimulatorDependant {
 
     @FXML
     private Label thLabel;
@@ -59,9 +59,9 @@ public class TimerController implements Updatable, MainWindowDependant {
     @FXML
     private CheckBox intCheckBox;
 
-    private final InternalData id = Simulator.getInstance().getInternalData();
+    private InternalData id;
 
-    private final InternalData.BitField bf = id.bitField;
+    private InternalData.BitField bf;
 
     private String timerNumber;
 
@@ -172,4 +172,10 @@ public class TimerController implements Updatable, MainWindowDependant {
         this.mainWindow = mainWindow;
     }
 
+    @Override
+    public void setSimulator(Simulator simulator) {
+        this.id = simulator.getInternalData();
+        this.bf = id.bitField;
+    }
+
 }
@@ -1,12 +1,17 @@
 package com.opensim51.gui.controller.device;
 
+import com.opensim51.gui.controller.Detachable;
+import com.opensim51.gui.controller.SimulatorDependant;
 import com.opensim51.gui.controller.Updatable;
 import com.opensim51.simulator.Simulator;
 import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.WriteListener;
 import com.opensim51.simulator.memory.datatype.UInt8;
 import javafx.fxml.FXML;
 
-public class DisplayArrayController implements Updatable {
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class DisplayArrayController implements Updatable, SimulatorDependant, Detachable {
 
     @FXML
     private DisplayController display0Controller;
@@ -32,7 +37,12 @@ public class DisplayArrayController implements Updatable {
     @FXML
     private DisplayController display7Controller;
 
-    private final InternalData internalData = Simulator.getInstance().getInternalData();
+    private InternalData internalData;
+
+    // latched on the thread running the program and shown on the user interface thread
+    private final AtomicIntegerArray segments = new AtomicIntegerArray(8);
+
+    private final WriteListener latch = (address, value) -> latch();
 
     @FXML
     public void initialize() {
@@ -44,6 +54,29 @@ public class DisplayArrayController implements Updatable {
         display5Controller.setValue(UInt8.MAX_VALUE);
         display6Controller.setValue(UInt8.MAX_VALUE);
         display7Controller.setValue(UInt8.MAX_VALUE);
+
+        for (int i = 0; i < segments.length(); i++) {
+            segments.set(i, 0xff);
+        }
+    }
+
+    @Override
+    public void setSimulator(Simulator simulator) {
+        internalData = simulator.getInternalData();
+        internalData.addWriteListener(internalData.P1.getAddress(), latch);
+        internalData.addWriteListener(internalData.P3.getAddress(), latch);
+    }
+
+    @Override
+    public void detach() {
+        internalData.removeWriteListener(internalData.P1.getAddress(), latch);
+        internalData.removeWriteListener(internalData.P3.getAddress(), latch);
+    }
+
+    private void latch() {
+
+        // bits P3.5, P3.4, and P3.3 contain the number of the active display
+        segments.set((internalData.P3.peek() >> 3) & 0x07, internalData.P1.peek());
     }
 
     @Override
@@ -59,14 +92,8 @@ public class DisplayArrayController implements Updatable {
                 display7Controller
         };
 
-        // bits P3.5, P3.4, and P3.3 contain the number of the active display
-        UInt8 p3 = internalData.P3.getValue();
-        UInt8 mask = UInt8.valueOf(0x07).shl(3);
-        int displayIndex = p3.and(mask).shr(3).toInt();
-
-        UInt8 value = internalData.P1.getValue();
         for (int i = 0; i < displays.length; i++) {
-            displays[i].setValue(i == displayIndex ? value : UInt8.MAX_VALUE);
+            displays[i].setValue(UInt8.valueOf(segments.get(i)));
         }
     }
 
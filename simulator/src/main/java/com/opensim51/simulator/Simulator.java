@@ -1,31 +1,57 @@
 package com.opensim51.simulator;
 
 import com.opensim51.misc.intelhexparser.Intel8HexParser;
+import com.opensim51.simulator.instruction.DispatchMode;
+import com.opensim51.simulator.jit.TranslationCache;
 import com.opensim51.simulator.memory.ExternalCode;
 import com.opensim51.simulator.memory.ExternalData;
 import com.opensim51.simulator.memory.InternalData;
 import com.opensim51.simulator.memory.MemoryUnit;
 import com.opensim51.simulator.memory.datatype.UInt16;
-import com.opensim51.simulator.memory.datatype.UInt8;
+import com.opensim51.simulator.replay.InputLog;
+import com.opensim51.simulator.sys.Breakpoints;
+import com.opensim51.simulator.sys.Clock;
+import com.opensim51.simulator.sys.ExecutionMode;
+import com.opensim51.simulator.sys.History;
 import com.opensim51.simulator.sys.ProcessingUnit;
+import com.opensim51.simulator.sys.RunStatus;
+import com.opensim51.simulator.sys.Snapshot;
+import com.opensim51.simulator.trace.TraceRing;
+import com.opensim51.simulator.trace.TraceWriter;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class Simulator {
 
-    private static Simulator simulator = new Simulator();
+    private final MemoryUnit memoryUnit;
+    private final ProcessingUnit processingUnit;
 
-    private MemoryUnit memoryUnit;
-    private ProcessingUnit processingUnit;
-
-    private Simulator() {
+    public Simulator() {
         memoryUnit = new MemoryUnit();
         processingUnit = new ProcessingUnit(memoryUnit);
     }
 
-    public static Simulator getInstance() {
-        return simulator;
+    private Simulator(ProcessingUnit processingUnit) {
+        this.memoryUnit = processingUnit.getMemoryUnit();
+        this.processingUnit = processingUnit;
+    }
+
+    // an independent simulator that continues from the current state
+    public Simulator fork() {
+        return new Simulator(processingUnit.fork());
+    }
+
+    // back to the state after power-on, the program and the settings are kept
+    public void reset() {
+        processingUnit.reset();
+    }
+
+    // drops what a user attached, the state is kept
+    public void clearSession() {
+        processingUnit.clearSession();
     }
 
     public InternalData getInternalData() {
@@ -48,20 +74,141 @@ public class Simulator {
         processingUnit.setProgramCounter(programCounter);
     }
 
+    public DispatchMode getDispatchMode() {
+        return processingUnit.getDispatchMode();
+    }
+
+    public void setDispatchMode(DispatchMode dispatchMode) {
+        processingUnit.setDispatchMode(dispatchMode);
+    }
+
+    public long getCycles() {
+        return processingUnit.getCycles();
+    }
+
+    public long getElapsedNanos() {
+        return processingUnit.getElapsedNanos();
+    }
+
+    public Clock getClock() {
+        return processingUnit.getClock();
+    }
+
+    public void setClock(Clock clock) {
+        processingUnit.setClock(clock);
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return processingUnit.getExecutionMode();
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        processingUnit.setExecutionMode(executionMode);
+    }
+
+    public void setTranslationCache(TranslationCache translationCache) {
+        processingUnit.setTranslationCache(translationCache);
+    }
+
     public void burnIntel8HexFile(File file) throws Exception {
         FileInputStream stream = new FileInputStream(file);
-        Intel8HexParser hexParser = new Intel8HexParser(stream, (address, data) -> {
-            for (byte b : data) {
-                memoryUnit.getExternalCode().setCellValue(address++, UInt8.valueOf(b));
-            }
-        });
+        Intel8HexParser hexParser = new Intel8HexParser(stream,
+                (address, data) -> memoryUnit.getExternalCode().write(address, data, 0, data.length));
         hexParser.parse();
     }
 
+    // the code image is shared with every simulator that maps it, the data image is mapped copy-on-write
+    public void mapCodeImage(Path image) throws IOException {
+        memoryUnit.getExternalCode().mapShared(image);
+    }
+
+    public void mapDataImage(Path image) throws IOException {
+        memoryUnit.getExternalData().mapPrivate(image);
+    }
+
     public void run(ExecutionListener executionListener) {
         processingUnit.run(executionListener);
     }
 
+    public RunStatus runSlice(long instructions, long cycles) {
+        return processingUnit.runSlice(instructions, cycles);
+    }
+
+    public Breakpoints getBreakpoints() {
+        return processingUnit.getBreakpoints();
+    }
+
+    // changes the pins of the port from any thread
+    public void setInput(int address, int value) {
+        processingUnit.setInput(address, value);
+    }
+
+    public InputLog startRecording() {
+        return processingUnit.startRecording();
+    }
+
+    public void stopRecording() {
+        processingUnit.stopRecording();
+    }
+
+    public void replay(InputLog inputLog) {
+        processingUnit.replay(inputLog);
+    }
+
+    // taking and restoring a snapshot copies no memory
+    public Snapshot snapshot() {
+        return processingUnit.snapshot();
+    }
+
+    public void restore(Snapshot snapshot) {
+        processingUnit.restore(snapshot);
+    }
+
+    public void setHistory(History history) {
+        processingUnit.setHistory(history);
+    }
+
+    public History getHistory() {
+        return processingUnit.getHistory();
+    }
+
+    public RunStatus stepBack() {
+        return processingUnit.stepBack();
+    }
+
+    public RunStatus reverseContinue() {
+        return processingUnit.reverseContinue();
+    }
+
+    public void cancel() {
+        processingUnit.cancel();
+    }
+
+    public void setTracer(ExecutionListener tracer) {
+        processingUnit.setTracer(tracer);
+    }
+
+    public TraceRing getTraceRing() {
+        return processingUnit.getTraceRing();
+    }
+
+    public void setTraceRing(TraceRing traceRing) {
+        processingUnit.setTraceRing(traceRing);
+    }
+
+    public TraceWriter getTraceWriter() {
+        return processingUnit.getTraceWriter();
+    }
+
+    // the writer is closed by the caller once done
+    public void setTraceWriter(TraceWriter traceWriter) {
+        processingUnit.setTraceWriter(traceWriter);
+    }
+
+    public void saveTranslations() throws IOException {
+        processingUnit.saveTranslations();
+    }
+
     public void step(ExecutionListener executionListener) {
         processingUnit.step(executionListener);
     }
@@ -0,0 +1,48 @@
+package com.opensim51.simulator;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// hands out simulators to any number of threads, released ones are reset and reused
+public class SimulatorPool {
+
+    private final int capacity;
+    private final ConcurrentLinkedDeque<Simulator> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public SimulatorPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        this.capacity = capacity;
+    }
+
+    public Simulator acquire() {
+        Simulator simulator = idle.pollFirst();
+        if (simulator == null) {
+            return new Simulator();
+        }
+
+        idleCount.decrementAndGet();
+        return simulator;
+    }
+
+    // the simulator must no longer be used by the caller afterwards
+    public void release(Simulator simulator) {
+        if (idleCount.incrementAndGet() > capacity) {
+            idleCount.decrementAndGet();
+            return;
+        }
+
+        simulator.clearSession();
+        simulator.reset();
+        simulator.getExternalCode().clear();
+        idle.offerFirst(simulator);
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.opensim51.simulator.batch;
+
+import com.opensim51.simulator.Simulator;
+import com.opensim51.simulator.SimulatorPool;
+import com.opensim51.simulator.jit.TranslationCache;
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.Memory;
+import com.opensim51.simulator.sys.Breakpoints;
+import com.opensim51.simulator.sys.Condition;
+import com.opensim51.simulator.sys.ExecutionMode;
+import com.opensim51.simulator.sys.RunStatus;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+// runs jobs on a work-stealing pool, one simulator per worker at a time
+public class BatchRunner {
+
+    private final ForkJoinPool pool;
+    private final SimulatorPool simulators;
+
+    private volatile ExecutionMode executionMode = ExecutionMode.INTERPRETED;
+
+    public BatchRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchRunner(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.simulators = new SimulatorPool(parallelism);
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    // the consumer is called from the workers concurrently
+    public ForkJoinTask<Void> submit(List<Job> jobs, Consumer<JobResult> consumer) {
+        return pool.submit(new Jobs(this, jobs, 0, jobs.size(), consumer));
+    }
+
+    public void run(List<Job> jobs, Consumer<JobResult> consumer) {
+        submit(jobs, consumer).join();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private JobResult execute(Job job) {
+        Simulator simulator = simulators.acquire();
+        try {
+            simulator.setExecutionMode(executionMode);
+            simulator.getExternalCode().write(0, job.getImage(), 0, job.getImage().length);
+
+            ExitReason exitReason;
+            String failure = null;
+            try {
+                exitReason = run(simulator, job);
+            } catch (RuntimeException e) {
+                exitReason = ExitReason.FAILED;
+                failure = String.valueOf(e.getMessage());
+            }
+
+            return new JobResult(job, exitReason, simulator.getCycles(), simulator.getProgramCounter().toInt(),
+                    digestRegisters(simulator), digest(simulator.getInternalData()),
+                    digest(simulator.getExternalData()), failure);
+        } finally {
+            simulators.release(simulator);
+        }
+    }
+
+    private static ExitReason run(Simulator simulator, Job job) {
+        if (job.getStimulus() != null) {
+            job.getStimulus().apply(simulator);
+        }
+
+        StopCondition stopCondition = job.getStopCondition();
+        if (stopCondition != null && stopCondition.isReached(simulator)) {
+            return ExitReason.STOPPED;
+        }
+        if (job.getCycleBudget() == 0) {
+            return ExitReason.BUDGET_EXHAUSTED;
+        }
+
+        // the stop condition is checked by the slice together with the breakpoints
+        Breakpoints breakpoints = simulator.getBreakpoints();
+        Condition condition = breakpoints.getCondition();
+        if (stopCondition != null) {
+            breakpoints.setCondition((memoryUnit, pc) -> condition != null && condition.isMet(memoryUnit, pc)
+                    || stopCondition.isReached(simulator));
+        }
+
+        RunStatus status;
+        try {
+            status = simulator.runSlice(Long.MAX_VALUE, job.getCycleBudget() - simulator.getCycles());
+        } finally {
+            breakpoints.setCondition(condition);
+        }
+
+        switch (status.getStopReason()) {
+            case BREAKPOINT:
+                return stopCondition != null && stopCondition.isReached(simulator)
+                        ? ExitReason.STOPPED : ExitReason.BREAKPOINT;
+            case WATCHPOINT:
+                return ExitReason.WATCHPOINT;
+            case CANCELLED:
+                return ExitReason.CANCELLED;
+            default:
+                return ExitReason.BUDGET_EXHAUSTED;
+        }
+    }
+
+    private static String digestRegisters(Simulator simulator) {
+        InternalData data = simulator.getInternalData();
+        int pc = simulator.getProgramCounter().toInt();
+
+        byte[] registers = new byte[16];
+        registers[0] = (byte) (pc >> 8);
+        registers[1] = (byte) pc;
+        registers[2] = (byte) data.ACC.read();
+        registers[3] = (byte) data.B.read();
+        registers[4] = (byte) data.PSW.read();
+        registers[5] = (byte) data.SP.read();
+        registers[6] = (byte) data.DPH.read();
+        registers[7] = (byte) data.DPL.read();
+        for (int register = 0; register < 8; register++) {
+            registers[8 + register] = (byte) data.readRegister(register);
+        }
+
+        return TranslationCache.hash(registers);
+    }
+
+    private static String digest(Memory memory) {
+        byte[] cells = new byte[memory.getSize()];
+        memory.read(0, cells, 0, cells.length);
+        return TranslationCache.hash(cells);
+    }
+
+    private static class Jobs extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BatchRunner runner;
+        private final List<Job> jobs;
+        private final int from;
+        private final int to;
+        private final Consumer<JobResult> consumer;
+
+        Jobs(BatchRunner runner, List<Job> jobs, int from, int to, Consumer<JobResult> consumer) {
+            this.runner = runner;
+            this.jobs = jobs;
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                consumer.accept(runner.execute(jobs.get(from)));
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Jobs(runner, jobs, from, middle, consumer),
+                        new Jobs(runner, jobs, middle, to, consumer));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.opensim51.simulator.batch;
+
+public enum ExitReason {
+
+    // the stop condition of the job was reached
+    STOPPED,
+
+    // the job used up its cycle budget before the stop condition was reached
+    BUDGET_EXHAUSTED,
+
+    // the program reached a breakpoint the stimulus set
+    BREAKPOINT,
+
+    // the program made an access a watchpoint the stimulus set is for
+    WATCHPOINT,
+
+    // the simulator was cancelled while running the job
+    CANCELLED,
+
+    // the simulation failed, e.g. on a reserved opcode
+    FAILED
+
+}
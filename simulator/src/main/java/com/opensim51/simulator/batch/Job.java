@@ -0,0 +1,44 @@
+package com.opensim51.simulator.batch;
+
+public class Job {
+
+    private final String name;
+    private final byte[] image;
+    private final Stimulus stimulus;
+    private final StopCondition stopCondition;
+    private final long cycleBudget;
+
+    // the image is burnt into code memory from address 0
+    public Job(String name, byte[] image, Stimulus stimulus, StopCondition stopCondition, long cycleBudget) {
+        if (image.length > 0x10000 || cycleBudget < 0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        this.name = name;
+        this.image = image;
+        this.stimulus = stimulus;
+        this.stopCondition = stopCondition;
+        this.cycleBudget = cycleBudget;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public byte[] getImage() {
+        return image;
+    }
+
+    public Stimulus getStimulus() {
+        return stimulus;
+    }
+
+    public StopCondition getStopCondition() {
+        return stopCondition;
+    }
+
+    public long getCycleBudget() {
+        return cycleBudget;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.opensim51.simulator.batch;
+
+public class JobResult {
+
+    private final Job job;
+    private final ExitReason exitReason;
+    private final long cycles;
+    private final int pc;
+    private final String registerDigest;
+    private final String internalDataDigest;
+    private final String externalDataDigest;
+    private final String failure;
+
+    JobResult(Job job, ExitReason exitReason, long cycles, int pc, String registerDigest, String internalDataDigest,
+              String externalDataDigest, String failure) {
+        this.job = job;
+        this.exitReason = exitReason;
+        this.cycles = cycles;
+        this.pc = pc;
+        this.registerDigest = registerDigest;
+        this.internalDataDigest = internalDataDigest;
+        this.externalDataDigest = externalDataDigest;
+        this.failure = failure;
+    }
+
+    public Job getJob() {
+        return job;
+    }
+
+    public ExitReason getExitReason() {
+        return exitReason;
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    // SHA-256 of PC, ACC, B, PSW, SP, DPTR and R0-R7 of the selected bank
+    public String getRegisterDigest() {
+        return registerDigest;
+    }
+
+    // SHA-256 of the whole internal data memory including the SFRs
+    public String getInternalDataDigest() {
+        return internalDataDigest;
+    }
+
+    public String getExternalDataDigest() {
+        return externalDataDigest;
+    }
+
+    // the message of the exception a failed job ended with, null otherwise
+    public String getFailure() {
+        return failure;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %s after %d cycles at %04X", job.getName(), exitReason, cycles, pc);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.opensim51.simulator.batch;
+
+import com.opensim51.simulator.Simulator;
+
+// prepares the simulator of a job before it runs, e.g. drives port pins or attaches listeners that do so later
+@FunctionalInterface
+public interface Stimulus {
+
+    void apply(Simulator simulator);
+
+}
@@ -0,0 +1,11 @@
+package com.opensim51.simulator.batch;
+
+import com.opensim51.simulator.Simulator;
+
+// checked after every instruction of a job
+@FunctionalInterface
+public interface StopCondition {
+
+    boolean isReached(Simulator simulator);
+
+}
@@ -0,0 +1,101 @@
+package com.opensim51.simulator.instruction;
+
+import com.opensim51.simulator.jit.CompiledBlock;
+import com.opensim51.simulator.memory.MemoryUnit;
+
+// a straight-line run of decoded instructions that ends with the first jump, call or return
+public final class BasicBlock {
+
+    private final int startAddress;
+    private final int size;
+    private final int cycles;
+
+    private final int[] addresses;
+    private final int[] opcodes;
+    private final int[] operands1;
+    private final int[] operands2;
+    private final Instruction[] instructions;
+
+    private volatile boolean valid = true;
+
+    // the number of times execution entered the block at its start address
+    private int entries;
+    private volatile CompiledBlock compiledBlock;
+
+    BasicBlock(int startAddress, int size, int cycles, int[] addresses, int[] opcodes, int[] operands1,
+               int[] operands2, Instruction[] instructions) {
+        this.startAddress = startAddress;
+        this.size = size;
+        this.cycles = cycles;
+        this.addresses = addresses;
+        this.opcodes = opcodes;
+        this.operands1 = operands1;
+        this.operands2 = operands2;
+        this.instructions = instructions;
+    }
+
+    public int execute(int index, MemoryUnit memoryUnit) {
+        return instructions[index].execute(addresses[index], operands1[index], operands2[index], memoryUnit);
+    }
+
+    public int getStartAddress() {
+        return startAddress;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getCycles() {
+        return cycles;
+    }
+
+    public int getLength() {
+        return instructions.length;
+    }
+
+    public int getAddress(int index) {
+        return addresses[index];
+    }
+
+    public int getOpcode(int index) {
+        return opcodes[index];
+    }
+
+    public int getOperand1(int index) {
+        return operands1[index];
+    }
+
+    public int getOperand2(int index) {
+        return operands2[index];
+    }
+
+    public Instruction getInstruction(int index) {
+        return instructions[index];
+    }
+
+    public boolean contains(int address) {
+        return ((address - startAddress) & 0xffff) < size;
+    }
+
+    public int enter() {
+        return ++entries;
+    }
+
+    public CompiledBlock getCompiledBlock() {
+        return compiledBlock;
+    }
+
+    public void setCompiledBlock(CompiledBlock compiledBlock) {
+        this.compiledBlock = compiledBlock;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+}
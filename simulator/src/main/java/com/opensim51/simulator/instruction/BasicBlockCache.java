@@ -0,0 +1,188 @@
+package com.opensim51.simulator.instruction;
+
+import com.opensim51.simulator.jit.CompiledBlock;
+import com.opensim51.simulator.memory.ExternalCode;
+import com.opensim51.simulator.memory.WriteListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class BasicBlockCache implements WriteListener {
+
+    private static final int CODE_SIZE = 0x10000;
+
+    // keeps the invalidation of a written address down to a short backward scan
+    private static final int MAX_INSTRUCTIONS = 32;
+    private static final int MAX_BYTES = MAX_INSTRUCTIONS * 3;
+
+    private final ExternalCode code;
+    private final BasicBlock[] blocks = new BasicBlock[CODE_SIZE];
+
+    // set for every address that is or was covered by a cached block, cleared only by clear()
+    private final boolean[] covered = new boolean[CODE_SIZE];
+
+    private Instruction[] instructions;
+
+    // translations loaded for the current code image, attached to the blocks as they are decoded
+    private Map<Integer, CompiledBlock> precompiled = new HashMap<>();
+
+    // counts the writes to code memory, tells whether the code still is the image a hash was taken of
+    private long modifications;
+
+    public BasicBlockCache(ExternalCode code, Instruction[] instructions) {
+        this.code = code;
+        this.instructions = instructions;
+
+        code.setWriteListener(this);
+    }
+
+    public BasicBlock get(int address) {
+        BasicBlock block = blocks[address];
+        if (block == null) {
+            block = decode(address);
+            blocks[address] = block;
+            block.setCompiledBlock(precompiled.get(address));
+
+            for (int offset = 0; offset < block.getSize(); offset++) {
+                covered[(address + offset) & 0xffff] = true;
+            }
+        }
+
+        return block;
+    }
+
+    public List<BasicBlock> getBlocks() {
+        List<BasicBlock> cached = new ArrayList<>();
+        for (BasicBlock block : blocks) {
+            if (block != null) {
+                cached.add(block);
+            }
+        }
+        return cached;
+    }
+
+    public void setPrecompiled(Map<Integer, CompiledBlock> precompiled) {
+        this.precompiled = precompiled;
+        clear();
+    }
+
+    public long getModifications() {
+        return modifications;
+    }
+
+    public void setInstructions(Instruction[] instructions) {
+        this.instructions = instructions;
+        clear();
+    }
+
+    public void clear() {
+        for (BasicBlock block : blocks) {
+            if (block != null) {
+                block.invalidate();
+            }
+        }
+
+        Arrays.fill(blocks, null);
+        Arrays.fill(covered, false);
+    }
+
+    @Override
+    public void written(int address, int value) {
+        modifications++;
+        if (!precompiled.isEmpty()) {
+            precompiled = new HashMap<>();
+        }
+
+        if (!covered[address]) {
+            return;
+        }
+
+        for (int offset = 0; offset < MAX_BYTES; offset++) {
+            int startAddress = (address - offset) & 0xffff;
+            BasicBlock block = blocks[startAddress];
+            if (block != null && block.contains(address)) {
+                block.invalidate();
+                blocks[startAddress] = null;
+            }
+        }
+    }
+
+    private BasicBlock decode(int startAddress) {
+        int[] addresses = new int[MAX_INSTRUCTIONS];
+        int[] opcodes = new int[MAX_INSTRUCTIONS];
+        int[] operands1 = new int[MAX_INSTRUCTIONS];
+        int[] operands2 = new int[MAX_INSTRUCTIONS];
+        Instruction[] decoded = new Instruction[MAX_INSTRUCTIONS];
+
+        int address = startAddress;
+        int size = 0;
+        int cycles = 0;
+        int length = 0;
+        while (length < MAX_INSTRUCTIONS) {
+            int opcode = code.peek(address);
+            Instruction instruction = instructions[opcode];
+
+            // a reserved opcode ends the block without being part of it
+            if (instruction == null) {
+                break;
+            }
+
+            int bytes = instruction.getBytes();
+            addresses[length] = address;
+            opcodes[length] = opcode;
+            operands1[length] = bytes > 1 ? code.peek((address + 1) & 0xffff) : 0;
+            operands2[length] = bytes > 2 ? code.peek((address + 2) & 0xffff) : 0;
+            decoded[length] = instruction;
+
+            length++;
+            size += bytes;
+            cycles += instruction.getCycles();
+            address = (address + bytes) & 0xffff;
+
+            if (isBranch(opcode)) {
+                break;
+            }
+        }
+
+        return new BasicBlock(startAddress, size, cycles, Arrays.copyOf(addresses, length),
+                Arrays.copyOf(opcodes, length), Arrays.copyOf(operands1, length), Arrays.copyOf(operands2, length),
+                Arrays.copyOf(decoded, length));
+    }
+
+    static boolean isBranch(int opcode) {
+
+        // AJMP and ACALL
+        if ((opcode & 0x0f) == 0x01) {
+            return true;
+        }
+
+        // CJNE and DJNZ Rn
+        if (opcode >= 0xb4 && opcode <= 0xbf || opcode >= 0xd8 && opcode <= 0xdf) {
+            return true;
+        }
+
+        switch (opcode) {
+            case 0x02:  // LJMP
+            case 0x10:  // JBC
+            case 0x12:  // LCALL
+            case 0x20:  // JB
+            case 0x22:  // RET
+            case 0x30:  // JNB
+            case 0x32:  // RETI
+            case 0x40:  // JC
+            case 0x50:  // JNC
+            case 0x60:  // JZ
+            case 0x70:  // JNZ
+            case 0x73:  // JMP @A+DPTR
+            case 0x80:  // SJMP
+            case 0xd5:  // DJNZ direct
+                return true;
+            default:
+                return false;
+        }
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.opensim51.simulator.instruction;
+
+public enum DispatchMode {
+
+    // one handler per instruction type that decodes the addressing mode from the opcode on every execution
+    GENERIC,
+
+    // one handler per opcode with the addressing mode and the register number resolved in advance
+    SPECIALIZED
+
+}
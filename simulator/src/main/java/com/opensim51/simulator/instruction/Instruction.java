@@ -1,25 +1,45 @@
 package com.opensim51.simulator.instruction;
 
+import com.opensim51.simulator.memory.ExternalCode;
 import com.opensim51.simulator.memory.MemoryUnit;
-import com.opensim51.simulator.memory.datatype.UInt16;
 
 public final class Instruction {
     private final int bytes;
     private final int cycles;
-    private final InstructionType instructionType;
+    private final Operation operation;
 
     Instruction(int bytes, int cycles, InstructionType instructionType) {
+        this(bytes, cycles, (pc, operand1, operand2, memoryUnit) -> instructionType.execute(pc, memoryUnit, bytes));
+    }
+
+    Instruction(int bytes, int cycles, Operation operation) {
         this.bytes = bytes;
         this.cycles = cycles;
-        this.instructionType = instructionType;
+        this.operation = operation;
+    }
+
+    public int execute(int programCounter, MemoryUnit memoryUnit) {
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int operand1 = bytes > 1 ? code.read((programCounter + 1) & 0xffff) : 0;
+        int operand2 = bytes > 2 ? code.read((programCounter + 2) & 0xffff) : 0;
+        return operation.execute(programCounter, operand1, operand2, memoryUnit);
     }
 
-    public UInt16 execute(UInt16 programCounter, MemoryUnit memoryUnit) {
-        return instructionType.execute(programCounter, memoryUnit, bytes);
+    public int execute(int programCounter, int operand1, int operand2, MemoryUnit memoryUnit) {
+        return operation.execute(programCounter, operand1, operand2, memoryUnit);
+    }
+
+    public int getBytes() {
+        return bytes;
     }
 
     public int getCycles() {
         return cycles;
     }
 
+    public Operation getOperation() {
+        return operation;
+    }
+
 }
@@ -1,219 +1,419 @@
 package com.opensim51.simulator.instruction;
 
 import com.opensim51.simulator.memory.ExternalCode;
+import com.opensim51.simulator.memory.ExternalData;
 import com.opensim51.simulator.memory.InternalData;
 import com.opensim51.simulator.memory.Memory;
 import com.opensim51.simulator.memory.MemoryUnit;
-import com.opensim51.simulator.memory.datatype.UInt16;
-import com.opensim51.simulator.memory.datatype.UInt8;
 
 import static com.opensim51.simulator.instruction.InstructionUtils.*;
 
 public enum InstructionType {
 
-    NOP((pc, memoryUnit, bytes) -> pc.inc()),
+    NOP((pc, memoryUnit, bytes) -> add16(pc, 1)),
 
     AJMP((pc, memoryUnit, bytes) -> {
         ExternalCode code = memoryUnit.getExternalCode();
 
-        UInt8 opcode = code.getCellValue(pc);
-        UInt16 highOrderBits = opcode.and(UInt8.valueOf(0xe0)).x16().shl(8);
-        UInt16 lowOrderBits = code.getCellValue(pc.inc()).x16();
-        UInt16 addr11 = highOrderBits.or(lowOrderBits);
-        return pc.and(UInt16.valueOf(0xf800)).or(addr11);
+        int opcode = code.read(pc);
+        int highOrderBits = (opcode & 0xe0) << 3;
+        int lowOrderBits = code.read(add16(pc, 1));
+        int addr11 = highOrderBits | lowOrderBits;
+        return (add16(pc, bytes) & 0xf800) | addr11;
     }),
 
     LJMP((pc, memoryUnit, bytes) -> {
         ExternalCode code = memoryUnit.getExternalCode();
 
-        UInt8 highOrderByte = code.getCellValue(pc.inc());
-        UInt8 lowOrderByte = code.getCellValue(pc.inc().inc());
-        return highOrderByte.x16().shl(8).and(lowOrderByte.x16());
+        int highOrderByte = code.read(add16(pc, 1));
+        int lowOrderByte = code.read(add16(pc, 2));
+        return (highOrderByte << 8) | lowOrderByte;
     }),
 
     RR((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int acc = data.ACC.read();
+        data.ACC.write(((acc >> 1) | (acc << 7)) & 0xff);
+
+        return add16(pc, bytes);
     }),
 
     INC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+        if (opcode == 0xa3) {
+
+            data.setDptr(add16(data.getDptr(), 1));
+
+        } else if (opcode == 0x04) {
+
+            data.ACC.write(add8(data.ACC.read(), 1));
+
+        } else if (opcode == 0x05) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, add8(data.read(direct), 1));
+
+        } else if ((opcode & 0xfe) == 0x06) {
+
+            Memory.Cell register = getRegister(data, opcode & 0x01);
+            setIndirect(register, add8(getIndirect(data, register), 1), data);
+
+        } else if ((opcode & 0xf8) == 0x08) {
+
+            Memory.Cell register = getRegister(data, opcode & 0x07);
+            register.write(add8(register.read(), 1));
+
+        }
+
+        return add16(pc, bytes);
     }),
 
     JBC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+
+        int bitAddress = code.read(add16(pc, 1));
+        if (data.bitField.getBitValue(bitAddress)) {
+            data.bitField.setBitValue(bitAddress, false);
+            next = relative(next, code.read(add16(pc, 2)));
+        }
+
+        return next;
     }),
 
     ACALL((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        UInt16 next = pc.inc().inc();
+        int next = add16(pc, bytes);
 
-        data.stack.push(next);
+        data.stack.pushWord(next);
 
-        UInt8 opcode = code.getCellValue(pc);
-        UInt16 highOrderBits = opcode.and(UInt8.valueOf(0xe0)).x16().shl(8);
-        UInt16 lowOrderBits = code.getCellValue(pc.inc()).x16();
-        UInt16 addr11 = highOrderBits.or(lowOrderBits);
+        int opcode = code.read(pc);
+        int highOrderBits = (opcode & 0xe0) << 3;
+        int lowOrderBits = code.read(add16(pc, 1));
+        int addr11 = highOrderBits | lowOrderBits;
 
-        return pc.and(UInt16.valueOf(0xf800)).or(addr11);
+        return (next & 0xf800) | addr11;
     }),
 
     LCALL((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        UInt16 next = pc.add(UInt16.valueOf(bytes));
+        int next = add16(pc, bytes);
 
-        data.stack.push(next);
+        data.stack.pushWord(next);
 
-        UInt16 highByte = code.getCellValue(pc.inc()).x16();
-        UInt16 lowByte = code.getCellValue(pc.inc().inc()).x16();
+        int highByte = code.read(add16(pc, 1));
+        int lowByte = code.read(add16(pc, 2));
 
-        return highByte.shl(0x8).add(lowByte);
+        return add16((highByte << 0x8) & 0xffff, lowByte);
     }),
 
     RRC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int acc = data.ACC.read();
+        int carry = data.bitField.CY.getValue() ? 0x80 : 0x00;
+        data.bitField.CY.setValue((acc & 0x01) != 0);
+        data.ACC.write((acc >> 1) | carry);
+
+        return add16(pc, bytes);
     }),
 
     DEC((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        int opcode = code.getCellValue(pc).toInt();
+        int opcode = code.read(pc);
         if ((opcode & 0xfe) == 0x16) {
 
             Memory.Cell register = getRegister(data, opcode & 0x01);
-            UInt8 value = getIndirect(data, register).inc();
+            int value = sub8(getIndirect(data, register), 1);
             setIndirect(register, value, data);
 
         } else if (opcode == 0x14) {
 
-            UInt8 value = data.ACC.getValue().inc();
-            data.ACC.setValue(value);
+            int value = sub8(data.ACC.read(), 1);
+            data.ACC.write(value);
 
         } else if (opcode == 0x15) {
 
-            UInt8 value = data.getCellValue(code.getCellValue(pc.inc())).sub(UInt8.ONE);
-            data.setCellValue(code.getCellValue(pc.inc()), value);
+            int value = sub8(data.read(code.read(add16(pc, 1))), 1);
+            data.write(code.read(add16(pc, 1)), value);
 
         } else if ((opcode & 0xf8) == 0x18) {
 
             Memory.Cell register = getRegister(data, opcode & 0x07);
-            register.setValue(register.getValue().inc());
+            register.write(sub8(register.read(), 1));
 
         }
 
-        return pc.add(UInt16.valueOf(bytes));
+        return add16(pc, bytes);
     }),
 
     JB((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+        if (data.bitField.getBitValue(code.read(add16(pc, 1)))) {
+            next = relative(next, code.read(add16(pc, 2)));
+        }
+
+        return next;
     }),
 
     RET((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
 
-        UInt8 highByte = data.stack.pop();
-        UInt8 lowByte = data.stack.pop();
+        int highByte = data.stack.popByte();
+        int lowByte = data.stack.popByte();
 
-        return highByte.x16().shl(8).or(lowByte.x16());
+        return (highByte << 8) | lowByte;
     }),
 
     RL((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int acc = data.ACC.read();
+        data.ACC.write(((acc << 1) | (acc >> 7)) & 0xff);
+
+        return add16(pc, bytes);
     }),
 
     ADD((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        add(data, getSource(data, code, pc), false);
+
+        return add16(pc, bytes);
     }),
 
     JNB((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+        if (!data.bitField.getBitValue(code.read(add16(pc, 1)))) {
+            next = relative(next, code.read(add16(pc, 2)));
+        }
+
+        return next;
     }),
 
+    // the processing unit additionally restores the interrupt level
     RETI((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int highByte = data.stack.popByte();
+        int lowByte = data.stack.popByte();
+
+        return (highByte << 8) | lowByte;
     }),
 
     RLC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int acc = data.ACC.read();
+        int carry = data.bitField.CY.getValue() ? 0x01 : 0x00;
+        data.bitField.CY.setValue((acc & 0x80) != 0);
+        data.ACC.write(((acc << 1) | carry) & 0xff);
+
+        return add16(pc, bytes);
     }),
 
     ADDC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        add(data, getSource(data, code, pc), data.bitField.CY.getValue());
+
+        return add16(pc, bytes);
     }),
 
     JC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+        if (data.bitField.CY.getValue()) {
+            next = relative(next, code.read(add16(pc, 1)));
+        }
+
+        return next;
     }),
 
     ORL((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+        if (opcode == 0x72) {
+
+            boolean value = data.bitField.getBitValue(code.read(add16(pc, 1)));
+            data.bitField.CY.setValue(data.bitField.CY.getValue() | value);
+
+        } else if (opcode == 0xa0) {
+
+            boolean value = !data.bitField.getBitValue(code.read(add16(pc, 1)));
+            data.bitField.CY.setValue(data.bitField.CY.getValue() | value);
+
+        } else if (opcode == 0x42) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, data.read(direct) | data.ACC.read());
+
+        } else if (opcode == 0x43) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, data.read(direct) | code.read(add16(pc, 2)));
+
+        } else {
+
+            data.ACC.write(data.ACC.read() | getSource(data, code, pc));
+
+        }
+
+        return add16(pc, bytes);
     }),
 
     JNC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+        if (!data.bitField.CY.getValue()) {
+            next = relative(next, code.read(add16(pc, 1)));
+        }
+
+        return next;
     }),
 
     ANL((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+        if (opcode == 0x82) {
+
+            boolean value = data.bitField.getBitValue(code.read(add16(pc, 1)));
+            data.bitField.CY.setValue(data.bitField.CY.getValue() & value);
+
+        } else if (opcode == 0xb0) {
+
+            boolean value = !data.bitField.getBitValue(code.read(add16(pc, 1)));
+            data.bitField.CY.setValue(data.bitField.CY.getValue() & value);
+
+        } else if (opcode == 0x52) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, data.read(direct) & data.ACC.read());
+
+        } else if (opcode == 0x53) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, data.read(direct) & code.read(add16(pc, 2)));
+
+        } else {
+
+            data.ACC.write(data.ACC.read() & getSource(data, code, pc));
+
+        }
+
+        return add16(pc, bytes);
     }),
 
     JZ((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+        if (data.ACC.read() == 0) {
+            next = relative(next, code.read(add16(pc, 1)));
+        }
+
+        return next;
     }),
 
     XRL((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+        if (opcode == 0x62) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, data.read(direct) ^ data.ACC.read());
+
+        } else if (opcode == 0x63) {
+
+            int direct = code.read(add16(pc, 1));
+            data.write(direct, data.read(direct) ^ code.read(add16(pc, 2)));
+
+        } else {
+
+            data.ACC.write(data.ACC.read() ^ getSource(data, code, pc));
+
+        }
+
+        return add16(pc, bytes);
     }),
 
     JNZ((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        pc = pc.add(UInt16.valueOf(bytes));
-        if (!data.ACC.getValue().equals(UInt8.ZERO)) {
-            UInt16 offset = code.getCellValue(pc.inc()).not().inc().x16();
-            pc = pc.add(offset);
+        int next = add16(pc, bytes);
+        if (data.ACC.read() != 0) {
+            next = relative(next, code.read(add16(pc, 1)));
         }
 
-        return pc;
+        return next;
     }),
 
     JMP((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        return add16(data.getDptr(), data.ACC.read());
     }),
 
     MOV((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        int opcode = code.getCellValue(pc).toInt();
+        int opcode = code.read(pc);
         if ((opcode & 0xfe) == 0x76) {
 
             Memory.Cell register = getRegister(data, opcode & 0x01);
-            UInt8 value = code.getCellValue(pc.inc());
+            int value = code.read(add16(pc, 1));
             setIndirect(register, value, data);
 
         } else if ((opcode & 0xfe) == 0xf6) {
 
             Memory.Cell register = getRegister(data, opcode & 0x01);
-            UInt8 value = data.ACC.getValue();
+            int value = data.ACC.read();
             setIndirect(register, value, data);
 
         } else if ((opcode & 0xfe) == 0xa6) {
 
             Memory.Cell register = getRegister(data, opcode & 0x01);
-            UInt8 value = data.getCellValue(code.getCellValue(pc.inc()));
+            int value = data.read(code.read(add16(pc, 1)));
             setIndirect(register, value, data);
 
         } else if (opcode == 0x74) {
 
             Memory.Cell destination = data.ACC;
-            UInt8 value = code.getCellValue(pc.inc());
-            destination.setValue(value);
+            int value = code.read(add16(pc, 1));
+            destination.write(value);
 
         } else if ((opcode & 0xfe) == 0xe6) {
 
@@ -224,156 +424,225 @@ public enum InstructionType {
         } else if (opcode == 0xe5) {
 
             Memory.Cell destination = data.ACC;
-            UInt8 value = data.getCellValue(code.getCellValue(pc.inc()));
-            destination.setValue(value);
+            int value = data.read(code.read(add16(pc, 1)));
+            destination.write(value);
 
         } else if ((opcode & 0xf8) == 0xe8) {
 
             Memory.Cell destination = data.ACC;
-            UInt8 value = getRegister(data, opcode & 0x07).getValue();
-            destination.setValue(value);
+            int value = getRegister(data, opcode & 0x07).read();
+            destination.write(value);
 
         } else if (opcode == 0x92) {
 
-            InternalData.Bit destination = data.bitField.getBit(code.getCellValue(pc.inc()).toInt());
+            InternalData.Bit destination = data.bitField.getBit(code.read(add16(pc, 1)));
             boolean value = data.bitField.CY.getValue();
             destination.setValue(value);
 
         } else if (opcode == 0xa2) {
 
             InternalData.Bit destination = data.bitField.CY;
-            boolean value = data.bitField.getBit(code.getCellValue(pc.inc()).toInt()).getValue();
+            boolean value = data.bitField.getBit(code.read(add16(pc, 1))).getValue();
             destination.setValue(value);
 
         } else if (opcode == 0x85) {
 
-            Memory.Cell destination = data.getCell(code.getCellValue(pc.inc().inc()).toInt());
-            UInt8 value = data.getCell(code.getCellValue(pc.inc()).toInt()).getValue();
-            destination.setValue(value);
+            Memory.Cell destination = data.getCell(code.read(add16(pc, 2)));
+            int value = data.getCell(code.read(add16(pc, 1))).read();
+            destination.write(value);
 
         } else if (opcode == 0x75) {
 
-            Memory.Cell destination = data.getCell(code.getCellValue(pc.inc()).toInt());
-            UInt8 value = code.getCellValue(pc.inc().inc());
-            destination.setValue(value);
+            Memory.Cell destination = data.getCell(code.read(add16(pc, 1)));
+            int value = code.read(add16(pc, 2));
+            destination.write(value);
 
         } else if ((opcode & 0xfe) == 0x86) {
 
-            Memory.Cell destination = data.getCell(code.getCellValue(pc.inc()).toInt());
+            Memory.Cell destination = data.getCell(code.read(add16(pc, 1)));
             Memory.Cell register = getRegister(data, opcode & 0x01);
             setIndirect(destination, register, data);
 
         } else if (opcode == 0xf5) {
 
-            Memory.Cell destination = data.getCell(code.getCellValue(pc.inc()).toInt());
-            UInt8 value = data.ACC.getValue();
-            destination.setValue(value);
+            Memory.Cell destination = data.getCell(code.read(add16(pc, 1)));
+            int value = data.ACC.read();
+            destination.write(value);
 
-        } else if ((opcode & 0xfe) == 0x88) {
+        } else if ((opcode & 0xf8) == 0x88) {
 
-            Memory.Cell destination = data.getCell(code.getCellValue(pc.inc()).toInt());
-            UInt8 value = getRegister(data, opcode & 0x01).getValue();
-            destination.setValue(value);
+            Memory.Cell destination = data.getCell(code.read(add16(pc, 1)));
+            int value = getRegister(data, opcode & 0x07).read();
+            destination.write(value);
 
         } else if (opcode == 0x90) {
 
-            data.DPH.setValue(code.getCellValue(pc.inc()));
-            data.DPL.setValue(code.getCellValue(pc.inc().inc()));
+            data.DPH.write(code.read(add16(pc, 1)));
+            data.DPL.write(code.read(add16(pc, 2)));
 
         } else if ((opcode & 0xf8) == 0x78) {
 
             Memory.Cell destination = getRegister(data, opcode & 0x07);
-            UInt8 value = code.getCellValue(pc.inc());
-            destination.setValue(value);
+            int value = code.read(add16(pc, 1));
+            destination.write(value);
 
         } else if ((opcode & 0xf8) == 0xf8) {
 
             Memory.Cell destination = getRegister(data, opcode & 0x07);
-            UInt8 value = data.ACC.getValue();
-            destination.setValue(value);
+            int value = data.ACC.read();
+            destination.write(value);
 
         } else if ((opcode & 0xf8) == 0xa8) {
 
             Memory.Cell destination = getRegister(data, opcode & 0x07);
-            UInt8 value = data.getCellValue(code.getCellValue(pc.inc()));
-            destination.setValue(value);
+            int value = data.read(code.read(add16(pc, 1)));
+            destination.write(value);
 
         }
 
-        return pc.add(UInt16.valueOf(bytes));
+        return add16(pc, bytes);
     }),
 
     SJMP((pc, memoryUnit, bytes) -> {
-        return null;
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        return relative(add16(pc, bytes), code.read(add16(pc, 1)));
     }),
 
     MOVC((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int next = add16(pc, bytes);
+
+        // the base is the address of the next instruction for 0x83 and DPTR for 0x93
+        int base = code.read(pc) == 0x83 ? next : data.getDptr();
+        data.ACC.write(code.read(add16(base, data.ACC.read())));
+
+        return next;
     }),
 
     DIV((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int divisor = data.B.read();
+
+        // the result of a division by zero is undefined, only the overflow flag is set
+        if (divisor == 0) {
+            data.bitField.CY.setValue(false);
+            data.bitField.OV.setValue(true);
+        } else {
+            int dividend = data.ACC.read();
+            data.ACC.write(dividend / divisor);
+            data.B.write(dividend % divisor);
+            data.bitField.CY.setValue(false);
+            data.bitField.OV.setValue(false);
+        }
+
+        return add16(pc, bytes);
     }),
 
     SUBB((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        int opcode = code.getCellValue(pc).toInt();
-        if (opcode == 0x94) {
+        subtract(data, getSource(data, code, pc));
 
-            UInt8 value = code.getCellValue(pc.inc());
-            subtract(data, value);
+        return add16(pc, bytes);
+    }),
 
-        } else if ((opcode & 0xfe) == 0x96) {
+    MUL((pc, memoryUnit, bytes) -> {
+        InternalData data = memoryUnit.getInternalData();
 
-            UInt8 value = data.getCellValue(getRegister(data, opcode & 0x01).getValue());
-            subtract(data, value);
+        int product = data.ACC.read() * data.B.read();
+        data.ACC.write(product & 0xff);
+        data.B.write(product >> 8);
+        data.bitField.CY.setValue(false);
+        data.bitField.OV.setValue(product > 0xff);
 
-        } else if (opcode == 0x95) {
+        return add16(pc, bytes);
+    }),
 
-            UInt8 value = data.getCellValue(code.getCellValue(pc.inc()));
-            subtract(data, value);
+    CPL((pc, memoryUnit, bytes) -> {
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
 
-        } else if ((opcode & 0xf8) == 0x98) {
+        int opcode = code.read(pc);
+        if (opcode == 0xf4) {
 
-            UInt8 value = getRegister(data, opcode & 0x07).getValue();
-            subtract(data, value);
+            data.ACC.write(data.ACC.read() ^ 0xff);
 
-        }
+        } else if (opcode == 0xb2) {
 
-        return pc.add(UInt16.valueOf(bytes));
-    }),
+            data.bitField.toggleBit(code.read(add16(pc, 1)));
 
-    MUL((pc, memoryUnit, bytes) -> {
-        return null;
-    }),
+        } else if (opcode == 0xb3) {
 
-    CPL((pc, memoryUnit, bytes) -> {
-        return null;
+            data.bitField.CY.setValue(!data.bitField.CY.getValue());
+
+        }
+
+        return add16(pc, bytes);
     }),
 
     CJNE((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+        int value;
+        int operand = code.read(add16(pc, 1));
+        if (opcode == 0xb4) {
+
+            value = data.ACC.read();
+
+        } else if (opcode == 0xb5) {
+
+            value = data.ACC.read();
+            operand = data.read(operand);
+
+        } else if ((opcode & 0xfe) == 0xb6) {
+
+            value = getIndirect(data, getRegister(data, opcode & 0x01));
+
+        } else {
+
+            value = getRegister(data, opcode & 0x07).read();
+
+        }
+
+        data.bitField.CY.setValue(value < operand);
+
+        int next = add16(pc, bytes);
+        if (value != operand) {
+            next = relative(next, code.read(add16(pc, 2)));
+        }
+
+        return next;
     }),
 
     PUSH((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        data.stack.pushByte(data.read(code.read(add16(pc, 1))));
+
+        return add16(pc, bytes);
     }),
 
     CLR((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        int opcode = code.getCellValue(pc).toInt();
+        int opcode = code.read(pc);
         if (opcode == 0xe4) {
 
-            data.ACC.setValue(UInt8.ZERO);
+            data.ACC.write(0x00);
 
         } else if (opcode == 0xc2) {
 
-            UInt8 bitAddress = code.getCellValue(pc.inc());
-            data.bitField.setBitValue(bitAddress.toInt(), false);
+            int bitAddress = code.read(add16(pc, 1));
+            data.bitField.setBitValue(bitAddress, false);
 
         } else if (opcode == 0xc3) {
 
@@ -381,30 +650,57 @@ public enum InstructionType {
 
         }
 
-        return pc.add(UInt16.valueOf(bytes));
+        return add16(pc, bytes);
     }),
 
     SWAP((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int acc = data.ACC.read();
+        data.ACC.write(((acc << 4) | (acc >> 4)) & 0xff);
+
+        return add16(pc, bytes);
     }),
 
     XCH((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+        Memory.Cell source;
+        if (opcode == 0xc5) {
+            source = data.getCell(code.read(add16(pc, 1)));
+        } else if ((opcode & 0xfe) == 0xc6) {
+            source = data.getCell(getRegister(data, opcode & 0x01).read());
+        } else {
+            source = getRegister(data, opcode & 0x07);
+        }
+
+        int acc = data.ACC.read();
+        data.ACC.write(source.read());
+        source.write(acc);
+
+        return add16(pc, bytes);
     }),
 
     POP((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        data.write(code.read(add16(pc, 1)), data.stack.popByte());
+
+        return add16(pc, bytes);
     }),
 
     SETB((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        int opcode = code.getCellValue(pc).toInt();
+        int opcode = code.read(pc);
         if (opcode == 0xd2) {
 
-            UInt8 bitValue = code.getCellValue(pc.inc());
-            data.bitField.setBitValue(bitValue.toInt(), true);
+            int bitValue = code.read(add16(pc, 1));
+            data.bitField.setBitValue(bitValue, true);
 
         } else if (opcode == 0xd3) {
 
@@ -412,41 +708,57 @@ public enum InstructionType {
 
         }
 
-        return pc.add(UInt16.valueOf(bytes));
+        return add16(pc, bytes);
     }),
 
     DA((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+
+        int acc = data.ACC.read();
+        boolean carry = data.bitField.CY.getValue();
+
+        if ((acc & 0x0f) > 0x09 || data.bitField.AC.getValue()) {
+            acc += 0x06;
+        }
+        if ((acc & 0x1f0) > 0x90 || carry) {
+            acc += 0x60;
+        }
+
+        // the carry flag can be set by the adjustment but never cleared
+        data.bitField.CY.setValue(carry || acc > 0xff);
+        data.ACC.write(acc & 0xff);
+
+        return add16(pc, bytes);
     }),
 
     DJNZ((pc, memoryUnit, bytes) -> {
         InternalData data = memoryUnit.getInternalData();
         ExternalCode code = memoryUnit.getExternalCode();
 
-        UInt16 next = pc.add(UInt16.valueOf(bytes));
+        int next = add16(pc, bytes);
 
-        int opcode = code.getCellValue(pc).toInt();
+        int opcode = code.read(pc);
         if (opcode == 0xd5) {
 
-            UInt8 direct = code.getCellValue(pc.inc());
-            UInt8 value = data.getCellValue(direct);
-            UInt8 newValue = value.sub(UInt8.ONE);
-            data.setCellValue(direct, newValue);
+            int direct = code.read(add16(pc, 1));
+            int value = data.read(direct);
+            int newValue = sub8(value, 1);
+            data.write(direct, newValue);
 
-            if (!newValue.equals(UInt8.ZERO)) {
-                UInt8 offset = code.getCellValue(pc.inc().inc());
-                next = next.add(offset.x16());
+            if (newValue != 0) {
+                int offset = code.read(add16(pc, 2));
+                next = relative(next, offset);
             }
 
         } else if ((opcode & 0xf8) == 0xd8) {
 
             Memory.Cell register = getRegister(data, opcode & 0x07);
-            UInt8 newValue = register.getValue().sub(UInt8.ONE);
-            register.setValue(newValue);
+            int newValue = sub8(register.read(), 1);
+            register.write(newValue);
 
-            if (!newValue.equals(UInt8.ZERO)) {
-                UInt8 offset = code.getCellValue(pc.inc());
-                next = next.add(offset.sx16());
+            if (newValue != 0) {
+                int offset = code.read(add16(pc, 1));
+                next = relative(next, offset);
             }
 
         }
@@ -455,11 +767,35 @@ public enum InstructionType {
     }),
 
     XCHD((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        Memory.Cell register = getRegister(data, code.read(pc) & 0x01);
+        int acc = data.ACC.read();
+        int value = getIndirect(data, register);
+        data.ACC.write((acc & 0xf0) | (value & 0x0f));
+        setIndirect(register, (value & 0xf0) | (acc & 0x0f), data);
+
+        return add16(pc, bytes);
     }),
 
     MOVX((pc, memoryUnit, bytes) -> {
-        return null;
+        InternalData data = memoryUnit.getInternalData();
+        ExternalData externalData = memoryUnit.getExternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        int opcode = code.read(pc);
+
+        // P2 provides the high-order byte of the address for @R0 and @R1
+        int address = (opcode & 0x02) == 0 ? data.getDptr()
+                : (data.P2.read() << 8) | getRegister(data, opcode & 0x01).read();
+        if ((opcode & 0x10) == 0) {
+            data.ACC.write(externalData.read(address));
+        } else {
+            externalData.write(address, data.ACC.read());
+        }
+
+        return add16(pc, bytes);
     });
 
     private final Operation operation;
@@ -468,12 +804,12 @@ public enum InstructionType {
         this.operation = operation;
     }
 
-    public UInt16 execute(UInt16 programCounter, MemoryUnit memoryUnit, int bytes) {
+    public int execute(int programCounter, MemoryUnit memoryUnit, int bytes) {
         return operation.execute(programCounter, memoryUnit, bytes);
     }
 
     private interface Operation {
-        UInt16 execute(UInt16 programCounter, MemoryUnit memoryUnit, int bytes);
+        int execute(int programCounter, MemoryUnit memoryUnit, int bytes);
     }
 
 }
@@ -1,44 +1,78 @@
 package com.opensim51.simulator.instruction;
 
+import com.opensim51.simulator.memory.ExternalCode;
 import com.opensim51.simulator.memory.InternalData;
 import com.opensim51.simulator.memory.Memory;
-import com.opensim51.simulator.memory.datatype.UInt8;
 
 final class InstructionUtils {
 
-    static void subtract(InternalData data, UInt8 value) {
-        value = data.bitField.CY.getValue() ? value.inc() : value;
+    static int add16(int value, int addend) {
+        return (value + addend) & 0xffff;
+    }
 
-        UInt8 acc = data.ACC.getValue();
-        data.bitField.CY.setValue(acc.isNegativeOverflowable(value));
-        data.ACC.setValue(acc.sub(value));
+    static int add8(int value, int addend) {
+        return (value + addend) & 0xff;
+    }
 
-        // set C flag
+    static int sub8(int value, int subtrahend) {
+        return (value - subtrahend) & 0xff;
+    }
 
-        // set OV flag
-//        int signedResult = ram.toSignedNumber(a) - ram.toSignedNumber(data);
-//        if (signedResult <= 127 && signedResult >= -128) {
-//            data.bitMap.OV.stb();
-//        } else {
-//            ram.stb(210);
-//        }
+    // relative offsets are signed and counted from the address of the next instruction
+    static int relative(int next, int offset) {
+        return (next + (byte) offset) & 0xffff;
+    }
+
+    // the second operand of the arithmetic and logic rows of the opcode map, decoded from the low nibble of the opcode
+    static int getSource(InternalData data, ExternalCode code, int pc) {
+        int opcode = code.read(pc);
+        if ((opcode & 0x08) != 0) {
+            return getRegister(data, opcode & 0x07).read();
+        } else if ((opcode & 0x0e) == 0x06) {
+            return getIndirect(data, getRegister(data, opcode & 0x01));
+        } else if ((opcode & 0x0f) == 0x05) {
+            return data.read(code.read(add16(pc, 1)));
+        }
+        return code.read(add16(pc, 1));
+    }
+
+    static void add(InternalData data, int value, boolean carry) {
+        int acc = data.ACC.read();
+        int carryIn = carry ? 1 : 0;
+        int sum = acc + value + carryIn;
+
+        setArithmeticFlags(data, sum > 0xff, (acc & 0x0f) + (value & 0x0f) + carryIn > 0x0f,
+                ((acc ^ sum) & (value ^ sum) & 0x80) != 0);
+        data.ACC.write(sum & 0xff);
+    }
+
+    static void subtract(InternalData data, int value) {
+        int acc = data.ACC.read();
+        int borrow = data.bitField.CY.getValue() ? 1 : 0;
+        int difference = acc - value - borrow;
+
+        setArithmeticFlags(data, difference < 0, (acc & 0x0f) - (value & 0x0f) - borrow < 0,
+                ((acc ^ value) & (acc ^ difference) & 0x80) != 0);
+        data.ACC.write(difference & 0xff);
+    }
 
-        // set AC flag
-        UInt8 accumulatorLowNibble = data.ACC.getValue().and(UInt8.MASK_LOW_NIBBLE);
-        UInt8 valueLowNibble = value.and(UInt8.MASK_LOW_NIBBLE);
-        data.bitField.AC.setValue(accumulatorLowNibble.compareTo(valueLowNibble) < 0);
+    private static void setArithmeticFlags(InternalData data, boolean carry, boolean auxiliaryCarry,
+                                           boolean overflow) {
+        data.bitField.CY.setValue(carry);
+        data.bitField.AC.setValue(auxiliaryCarry);
+        data.bitField.OV.setValue(overflow);
     }
 
     static void setIndirect(Memory.Cell destination, Memory.Cell register, InternalData data) {
-        destination.setValue(data.getCellValue(register.getValue()));
+        destination.write(data.read(register.read()));
     }
 
-    static void setIndirect(Memory.Cell register, UInt8 value, InternalData data) {
-        data.setCellValue(register.getValue(), value);
+    static void setIndirect(Memory.Cell register, int value, InternalData data) {
+        data.write(register.read(), value);
     }
 
-    static UInt8 getIndirect(InternalData data, Memory.Cell register) {
-        return data.getCellValue(register.getValue());
+    static int getIndirect(InternalData data, Memory.Cell register) {
+        return data.read(register.read());
     }
 
     static Memory.Cell getRegister(InternalData data, int number) {
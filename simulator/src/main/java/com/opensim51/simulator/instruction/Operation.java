@@ -0,0 +1,10 @@
+package com.opensim51.simulator.instruction;
+
+import com.opensim51.simulator.memory.MemoryUnit;
+
+@FunctionalInterface
+public interface Operation {
+
+    int execute(int programCounter, int operand1, int operand2, MemoryUnit memoryUnit);
+
+}
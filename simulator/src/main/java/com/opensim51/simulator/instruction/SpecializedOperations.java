@@ -0,0 +1,1019 @@
+package com.opensim51.simulator.instruction;
+
+import com.opensim51.simulator.memory.ExternalData;
+import com.opensim51.simulator.memory.InternalData;
+
+final class SpecializedOperations {
+
+    // PSW flags
+    private static final int CY = 0x80;
+    private static final int AC = 0x40;
+    private static final int OV = 0x04;
+
+    private SpecializedOperations() {
+    }
+
+    static Operation forOpcode(int opcode) {
+        if ((opcode & 0x1f) == 0x01) {
+            return absoluteJump(opcode);
+        } else if ((opcode & 0x1f) == 0x11) {
+            return absoluteCall(opcode);
+        } else if ((opcode & 0x0f) >= 0x08) {
+            return registerOperation(opcode >> 4, opcode & 0x07);
+        } else if ((opcode & 0x0e) == 0x06) {
+            return indirectOperation(opcode >> 4, opcode & 0x01);
+        } else {
+            return otherOperation(opcode);
+        }
+    }
+
+    // AJMP addr11
+    private static Operation absoluteJump(int opcode) {
+        int highOrderBits = (opcode & 0xe0) << 3;
+
+        return (pc, operand1, operand2, memoryUnit) -> (next(pc, 2) & 0xf800) | highOrderBits | operand1;
+    }
+
+    // ACALL addr11
+    private static Operation absoluteCall(int opcode) {
+        int highOrderBits = (opcode & 0xe0) << 3;
+
+        return (pc, operand1, operand2, memoryUnit) -> {
+            int next = next(pc, 2);
+            memoryUnit.getInternalData().stack.pushWord(next);
+            return (next & 0xf800) | highOrderBits | operand1;
+        };
+    }
+
+    // the columns 0x8..0xf of the opcode map, the low three bits of the opcode select register Rn
+    private static Operation registerOperation(int row, int n) {
+        switch (row) {
+
+            // INC Rn
+            case 0x0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.writeRegister(n, (data.readRegister(n) + 1) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // DEC Rn
+            case 0x1:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.writeRegister(n, (data.readRegister(n) - 1) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // ADD A, Rn
+            case 0x2:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, data.readRegister(n), false);
+                    return next(pc, 1);
+                };
+
+            // ADDC A, Rn
+            case 0x3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, data.readRegister(n), carry(data));
+                    return next(pc, 1);
+                };
+
+            // ORL A, Rn
+            case 0x4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() | data.readRegister(n));
+                    return next(pc, 1);
+                };
+
+            // ANL A, Rn
+            case 0x5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() & data.readRegister(n));
+                    return next(pc, 1);
+                };
+
+            // XRL A, Rn
+            case 0x6:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() ^ data.readRegister(n));
+                    return next(pc, 1);
+                };
+
+            // MOV Rn, #immed
+            case 0x7:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().writeRegister(n, operand1);
+                    return next(pc, 2);
+                };
+
+            // MOV direct, Rn
+            case 0x8:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.readRegister(n));
+                    return next(pc, 2);
+                };
+
+            // SUBB A, Rn
+            case 0x9:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    subtractWithBorrow(data, data.readRegister(n));
+                    return next(pc, 1);
+                };
+
+            // MOV Rn, direct
+            case 0xa:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.writeRegister(n, data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // CJNE Rn, #immed, offset
+            case 0xb:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return compareAndJump(data, pc, data.readRegister(n), operand1, operand2);
+                };
+
+            // XCH A, Rn
+            case 0xc:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    data.ACC.write(data.readRegister(n));
+                    data.writeRegister(n, acc);
+                    return next(pc, 1);
+                };
+
+            // DJNZ Rn, offset
+            case 0xd:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int value = (data.readRegister(n) - 1) & 0xff;
+                    data.writeRegister(n, value);
+                    return value != 0 ? jump(pc, 2, operand1) : next(pc, 2);
+                };
+
+            // MOV A, Rn
+            case 0xe:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.readRegister(n));
+                    return next(pc, 1);
+                };
+
+            // MOV Rn, A
+            default:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.writeRegister(n, data.ACC.read());
+                    return next(pc, 1);
+                };
+        }
+    }
+
+    // the columns 0x6 and 0x7 of the opcode map, the lowest bit of the opcode selects register R0 or R1
+    private static Operation indirectOperation(int row, int i) {
+        switch (row) {
+
+            // INC @Ri
+            case 0x0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int address = data.readRegister(i);
+                    data.write(address, (data.read(address) + 1) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // DEC @Ri
+            case 0x1:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int address = data.readRegister(i);
+                    data.write(address, (data.read(address) - 1) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // ADD A, @Ri
+            case 0x2:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, data.read(data.readRegister(i)), false);
+                    return next(pc, 1);
+                };
+
+            // ADDC A, @Ri
+            case 0x3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, data.read(data.readRegister(i)), carry(data));
+                    return next(pc, 1);
+                };
+
+            // ORL A, @Ri
+            case 0x4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() | data.read(data.readRegister(i)));
+                    return next(pc, 1);
+                };
+
+            // ANL A, @Ri
+            case 0x5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() & data.read(data.readRegister(i)));
+                    return next(pc, 1);
+                };
+
+            // XRL A, @Ri
+            case 0x6:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() ^ data.read(data.readRegister(i)));
+                    return next(pc, 1);
+                };
+
+            // MOV @Ri, #immed
+            case 0x7:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(data.readRegister(i), operand1);
+                    return next(pc, 2);
+                };
+
+            // MOV direct, @Ri
+            case 0x8:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(data.readRegister(i)));
+                    return next(pc, 2);
+                };
+
+            // SUBB A, @Ri
+            case 0x9:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    subtractWithBorrow(data, data.read(data.readRegister(i)));
+                    return next(pc, 1);
+                };
+
+            // MOV @Ri, direct
+            case 0xa:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(data.readRegister(i), data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // CJNE @Ri, #immed, offset
+            case 0xb:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return compareAndJump(data, pc, data.read(data.readRegister(i)), operand1, operand2);
+                };
+
+            // XCH A, @Ri
+            case 0xc:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int address = data.readRegister(i);
+                    int acc = data.ACC.read();
+                    data.ACC.write(data.read(address));
+                    data.write(address, acc);
+                    return next(pc, 1);
+                };
+
+            // XCHD A, @Ri
+            case 0xd:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int address = data.readRegister(i);
+                    int acc = data.ACC.read();
+                    int value = data.read(address);
+                    data.ACC.write((acc & 0xf0) | (value & 0x0f));
+                    data.write(address, (value & 0xf0) | (acc & 0x0f));
+                    return next(pc, 1);
+                };
+
+            // MOV A, @Ri
+            case 0xe:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.read(data.readRegister(i)));
+                    return next(pc, 1);
+                };
+
+            // MOV @Ri, A
+            default:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(data.readRegister(i), data.ACC.read());
+                    return next(pc, 1);
+                };
+        }
+    }
+
+    // the columns 0x0..0x5 of the opcode map except AJMP and ACALL
+    private static Operation otherOperation(int opcode) {
+        switch (opcode) {
+
+            // NOP
+            case 0x00:
+                return (pc, operand1, operand2, memoryUnit) -> next(pc, 1);
+
+            // LJMP addr16
+            case 0x02:
+                return (pc, operand1, operand2, memoryUnit) -> (operand1 << 8) | operand2;
+
+            // RR A
+            case 0x03:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    data.ACC.write(((acc >> 1) | (acc << 7)) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // INC A
+            case 0x04:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write((data.ACC.read() + 1) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // INC direct
+            case 0x05:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, (data.read(operand1) + 1) & 0xff);
+                    return next(pc, 2);
+                };
+
+            // JBC bit, offset
+            case 0x10:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    if (data.bitField.getBitValue(operand1)) {
+                        data.bitField.setBitValue(operand1, false);
+                        return jump(pc, 3, operand2);
+                    }
+                    return next(pc, 3);
+                };
+
+            // LCALL addr16
+            case 0x12:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().stack.pushWord(next(pc, 3));
+                    return (operand1 << 8) | operand2;
+                };
+
+            // RRC A
+            case 0x13:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    int carry = carry(data) ? 0x80 : 0x00;
+                    setCarry(data, (acc & 0x01) != 0);
+                    data.ACC.write((acc >> 1) | carry);
+                    return next(pc, 1);
+                };
+
+            // DEC A
+            case 0x14:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write((data.ACC.read() - 1) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // DEC direct
+            case 0x15:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, (data.read(operand1) - 1) & 0xff);
+                    return next(pc, 2);
+                };
+
+            // JB bit, offset
+            case 0x20:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return data.bitField.getBitValue(operand1) ? jump(pc, 3, operand2) : next(pc, 3);
+                };
+
+            // RET
+            // RETI, the processing unit additionally restores the interrupt level
+            case 0x22:
+            case 0x32:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int highByte = data.stack.popByte();
+                    int lowByte = data.stack.popByte();
+                    return (highByte << 8) | lowByte;
+                };
+
+            // RL A
+            case 0x23:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    data.ACC.write(((acc << 1) | (acc >> 7)) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // ADD A, #immed
+            case 0x24:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    add(memoryUnit.getInternalData(), operand1, false);
+                    return next(pc, 2);
+                };
+
+            // ADD A, direct
+            case 0x25:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, data.read(operand1), false);
+                    return next(pc, 2);
+                };
+
+            // JNB bit, offset
+            case 0x30:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return data.bitField.getBitValue(operand1) ? next(pc, 3) : jump(pc, 3, operand2);
+                };
+
+            // RLC A
+            case 0x33:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    int carry = carry(data) ? 0x01 : 0x00;
+                    setCarry(data, (acc & 0x80) != 0);
+                    data.ACC.write(((acc << 1) | carry) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // ADDC A, #immed
+            case 0x34:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, operand1, carry(data));
+                    return next(pc, 2);
+                };
+
+            // ADDC A, direct
+            case 0x35:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    add(data, data.read(operand1), carry(data));
+                    return next(pc, 2);
+                };
+
+            // JC offset
+            case 0x40:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return carry(data) ? jump(pc, 2, operand1) : next(pc, 2);
+                };
+
+            // ORL direct, A
+            case 0x42:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(operand1) | data.ACC.read());
+                    return next(pc, 2);
+                };
+
+            // ORL direct, #immed
+            case 0x43:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(operand1) | operand2);
+                    return next(pc, 3);
+                };
+
+            // ORL A, #immed
+            case 0x44:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() | operand1);
+                    return next(pc, 2);
+                };
+
+            // ORL A, direct
+            case 0x45:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() | data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // JNC offset
+            case 0x50:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return carry(data) ? next(pc, 2) : jump(pc, 2, operand1);
+                };
+
+            // ANL direct, A
+            case 0x52:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(operand1) & data.ACC.read());
+                    return next(pc, 2);
+                };
+
+            // ANL direct, #immed
+            case 0x53:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(operand1) & operand2);
+                    return next(pc, 3);
+                };
+
+            // ANL A, #immed
+            case 0x54:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() & operand1);
+                    return next(pc, 2);
+                };
+
+            // ANL A, direct
+            case 0x55:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() & data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // JZ offset
+            case 0x60:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return data.ACC.read() == 0 ? jump(pc, 2, operand1) : next(pc, 2);
+                };
+
+            // XRL direct, A
+            case 0x62:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(operand1) ^ data.ACC.read());
+                    return next(pc, 2);
+                };
+
+            // XRL direct, #immed
+            case 0x63:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.read(operand1) ^ operand2);
+                    return next(pc, 3);
+                };
+
+            // XRL A, #immed
+            case 0x64:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() ^ operand1);
+                    return next(pc, 2);
+                };
+
+            // XRL A, direct
+            case 0x65:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() ^ data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // JNZ offset
+            case 0x70:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return data.ACC.read() != 0 ? jump(pc, 2, operand1) : next(pc, 2);
+                };
+
+            // ORL C, bit
+            case 0x72:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    setCarry(data, carry(data) | data.bitField.getBitValue(operand1));
+                    return next(pc, 2);
+                };
+
+            // JMP @A+DPTR
+            case 0x73:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return (data.getDptr() + data.ACC.read()) & 0xffff;
+                };
+
+            // MOV A, #immed
+            case 0x74:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().ACC.write(operand1);
+                    return next(pc, 2);
+                };
+
+            // MOV direct, #immed
+            case 0x75:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().write(operand1, operand2);
+                    return next(pc, 3);
+                };
+
+            // SJMP offset
+            case 0x80:
+                return (pc, operand1, operand2, memoryUnit) -> jump(pc, 2, operand1);
+
+            // ANL C, bit
+            case 0x82:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    setCarry(data, carry(data) & data.bitField.getBitValue(operand1));
+                    return next(pc, 2);
+                };
+
+            // MOVC A, @A+PC
+            case 0x83:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int next = next(pc, 1);
+                    data.ACC.write(memoryUnit.getExternalCode().read((next + data.ACC.read()) & 0xffff));
+                    return next;
+                };
+
+            // DIV AB
+            case 0x84:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int divisor = data.B.read();
+
+                    // the result of a division by zero is undefined, only the overflow flag is set
+                    if (divisor == 0) {
+                        setCarryAndOverflow(data, false, true);
+                    } else {
+                        int dividend = data.ACC.read();
+                        data.ACC.write(dividend / divisor);
+                        data.B.write(dividend % divisor);
+                        setCarryAndOverflow(data, false, false);
+                    }
+                    return next(pc, 1);
+                };
+
+            // MOV direct, direct, the source address precedes the destination address
+            case 0x85:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand2, data.read(operand1));
+                    return next(pc, 3);
+                };
+
+            // MOV DPTR, #immed
+            case 0x90:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().setDptr((operand1 << 8) | operand2);
+                    return next(pc, 3);
+                };
+
+            // MOV bit, C
+            case 0x92:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.bitField.setBitValue(operand1, carry(data));
+                    return next(pc, 2);
+                };
+
+            // MOVC A, @A+DPTR
+            case 0x93:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(memoryUnit.getExternalCode().read((data.getDptr() + data.ACC.read()) & 0xffff));
+                    return next(pc, 1);
+                };
+
+            // SUBB A, #immed
+            case 0x94:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    subtractWithBorrow(memoryUnit.getInternalData(), operand1);
+                    return next(pc, 2);
+                };
+
+            // SUBB A, direct
+            case 0x95:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    subtractWithBorrow(data, data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // ORL C, /bit
+            case 0xa0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    setCarry(data, carry(data) | !data.bitField.getBitValue(operand1));
+                    return next(pc, 2);
+                };
+
+            // MOV C, bit
+            case 0xa2:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    setCarry(data, data.bitField.getBitValue(operand1));
+                    return next(pc, 2);
+                };
+
+            // INC DPTR
+            case 0xa3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.setDptr((data.getDptr() + 1) & 0xffff);
+                    return next(pc, 1);
+                };
+
+            // MUL AB
+            case 0xa4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int product = data.ACC.read() * data.B.read();
+                    data.ACC.write(product & 0xff);
+                    data.B.write(product >> 8);
+                    setCarryAndOverflow(data, false, product > 0xff);
+                    return next(pc, 1);
+                };
+
+            // ANL C, /bit
+            case 0xb0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    setCarry(data, carry(data) & !data.bitField.getBitValue(operand1));
+                    return next(pc, 2);
+                };
+
+            // CPL bit
+            case 0xb2:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.bitField.toggleBit(operand1);
+                    return next(pc, 2);
+                };
+
+            // CPL C
+            case 0xb3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    setCarry(data, !carry(data));
+                    return next(pc, 1);
+                };
+
+            // CJNE A, #immed, offset
+            case 0xb4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return compareAndJump(data, pc, data.ACC.read(), operand1, operand2);
+                };
+
+            // CJNE A, direct, offset
+            case 0xb5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    return compareAndJump(data, pc, data.ACC.read(), data.read(operand1), operand2);
+                };
+
+            // PUSH direct
+            case 0xc0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.stack.pushByte(data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // CLR bit
+            case 0xc2:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().bitField.setBitValue(operand1, false);
+                    return next(pc, 2);
+                };
+
+            // CLR C
+            case 0xc3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    setCarry(memoryUnit.getInternalData(), false);
+                    return next(pc, 1);
+                };
+
+            // SWAP A
+            case 0xc4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    data.ACC.write(((acc << 4) | (acc >> 4)) & 0xff);
+                    return next(pc, 1);
+                };
+
+            // XCH A, direct
+            case 0xc5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    data.ACC.write(data.read(operand1));
+                    data.write(operand1, acc);
+                    return next(pc, 2);
+                };
+
+            // POP direct
+            case 0xd0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.stack.popByte());
+                    return next(pc, 2);
+                };
+
+            // SETB bit
+            case 0xd2:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().bitField.setBitValue(operand1, true);
+                    return next(pc, 2);
+                };
+
+            // SETB C
+            case 0xd3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    setCarry(memoryUnit.getInternalData(), true);
+                    return next(pc, 1);
+                };
+
+            // DA A
+            case 0xd4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int acc = data.ACC.read();
+                    int psw = data.PSW.read();
+                    boolean carry = (psw & CY) != 0;
+
+                    if ((acc & 0x0f) > 0x09 || (psw & AC) != 0) {
+                        acc += 0x06;
+                    }
+                    if ((acc & 0x1f0) > 0x90 || carry) {
+                        acc += 0x60;
+                    }
+
+                    // the carry flag can be set by the adjustment but never cleared
+                    setCarry(data, carry || acc > 0xff);
+                    data.ACC.write(acc & 0xff);
+                    return next(pc, 1);
+                };
+
+            // DJNZ direct, offset
+            case 0xd5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    int value = (data.read(operand1) - 1) & 0xff;
+                    data.write(operand1, value);
+                    return value != 0 ? jump(pc, 3, operand2) : next(pc, 3);
+                };
+
+            // MOVX A, @DPTR
+            case 0xe0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(memoryUnit.getExternalData().read(data.getDptr()));
+                    return next(pc, 1);
+                };
+
+            // MOVX A, @Ri, P2 provides the high-order byte of the external address
+            case 0xe2:
+            case 0xe3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(memoryUnit.getExternalData().read(pagedAddress(data, opcode & 0x01)));
+                    return next(pc, 1);
+                };
+
+            // CLR A
+            case 0xe4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    memoryUnit.getInternalData().ACC.write(0x00);
+                    return next(pc, 1);
+                };
+
+            // MOV A, direct
+            case 0xe5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.read(operand1));
+                    return next(pc, 2);
+                };
+
+            // MOVX @DPTR, A
+            case 0xf0:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    memoryUnit.getExternalData().write(data.getDptr(), data.ACC.read());
+                    return next(pc, 1);
+                };
+
+            // MOVX @Ri, A
+            case 0xf2:
+            case 0xf3:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    ExternalData externalData = memoryUnit.getExternalData();
+                    externalData.write(pagedAddress(data, opcode & 0x01), data.ACC.read());
+                    return next(pc, 1);
+                };
+
+            // CPL A
+            case 0xf4:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.ACC.write(data.ACC.read() ^ 0xff);
+                    return next(pc, 1);
+                };
+
+            // MOV direct, A
+            case 0xf5:
+                return (pc, operand1, operand2, memoryUnit) -> {
+                    InternalData data = memoryUnit.getInternalData();
+                    data.write(operand1, data.ACC.read());
+                    return next(pc, 2);
+                };
+
+            // 0xa5 is reserved
+            default:
+                return null;
+        }
+    }
+
+    private static int next(int pc, int bytes) {
+        return (pc + bytes) & 0xffff;
+    }
+
+    private static int jump(int pc, int bytes, int offset) {
+
+        // relative offsets are signed and counted from the address of the next instruction
+        return (pc + bytes + (byte) offset) & 0xffff;
+    }
+
+    private static int compareAndJump(InternalData data, int pc, int value, int operand, int offset) {
+        setCarry(data, value < operand);
+        return value != operand ? jump(pc, 3, offset) : next(pc, 3);
+    }
+
+    private static int pagedAddress(InternalData data, int i) {
+        return (data.P2.read() << 8) | data.readRegister(i);
+    }
+
+    private static void add(InternalData data, int value, boolean carry) {
+        int acc = data.ACC.read();
+        int carryIn = carry ? 1 : 0;
+        int sum = acc + value + carryIn;
+
+        setArithmeticFlags(data, sum > 0xff, (acc & 0x0f) + (value & 0x0f) + carryIn > 0x0f,
+                ((acc ^ sum) & (value ^ sum) & 0x80) != 0);
+        data.ACC.write(sum & 0xff);
+    }
+
+    private static void subtractWithBorrow(InternalData data, int value) {
+        int acc = data.ACC.read();
+        int borrow = carry(data) ? 1 : 0;
+        int difference = acc - value - borrow;
+
+        setArithmeticFlags(data, difference < 0, (acc & 0x0f) - (value & 0x0f) - borrow < 0,
+                ((acc ^ value) & (acc ^ difference) & 0x80) != 0);
+        data.ACC.write(difference & 0xff);
+    }
+
+    private static boolean carry(InternalData data) {
+        return (data.PSW.read() & CY) != 0;
+    }
+
+    private static void setCarry(InternalData data, boolean carry) {
+        int psw = data.PSW.read();
+        data.PSW.write(carry ? psw | CY : psw & ~CY);
+    }
+
+    private static void setCarryAndOverflow(InternalData data, boolean carry, boolean overflow) {
+        int psw = data.PSW.read() & ~(CY | OV);
+        data.PSW.write(psw | (carry ? CY : 0) | (overflow ? OV : 0));
+    }
+
+    // all three flags are updated with a single write of PSW
+    private static void setArithmeticFlags(InternalData data, boolean carry, boolean auxiliaryCarry,
+                                           boolean overflow) {
+        int psw = data.PSW.read() & ~(CY | AC | OV);
+        data.PSW.write(psw | (carry ? CY : 0) | (auxiliaryCarry ? AC : 0) | (overflow ? OV : 0));
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.opensim51.simulator.jit;
+
+import java.util.Map;
+
+// one loader per translation batch, its classes are unloaded as soon as none of their blocks is cached
+class BlockClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> classes;
+
+    BlockClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+        super(parent);
+        this.classes = classes;
+    }
+
+    byte[] getClassFile(String name) {
+        return classes.get(name);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        byte[] bytes = classes.get(name);
+        if (bytes == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
+}
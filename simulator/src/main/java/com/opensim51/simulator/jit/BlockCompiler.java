@@ -0,0 +1,270 @@
+package com.opensim51.simulator.jit;
+
+import com.opensim51.simulator.instruction.BasicBlock;
+import com.opensim51.simulator.memory.MemoryUnit;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// one static final handler per instruction keeps every call site monomorphic so that HotSpot inlines the block
+public class BlockCompiler {
+
+    // changes whenever the generated code or the decoding of blocks changes, saved translations become stale then
+    public static final int TRANSLATION_VERSION = 1;
+
+    static final String PACKAGE = "com.opensim51.simulator.jit.generated";
+
+    private static final long BATCH_DELAY_MILLIS = 20;
+
+    private static final BlockCompiler DEFAULT = new BlockCompiler();
+
+    private final JavaCompiler compiler;
+    private final String classPath;
+    private final BlockingQueue<BasicBlock> queue = new LinkedBlockingQueue<>();
+
+    private Thread worker;
+
+    public BlockCompiler() {
+        this.compiler = ToolProvider.getSystemJavaCompiler();
+        this.classPath = findClassPath();
+    }
+
+    public static BlockCompiler getDefault() {
+        return DEFAULT;
+    }
+
+    // translation needs the system Java compiler, it is missing when running on a plain JRE
+    public boolean isAvailable() {
+        return compiler != null && classPath != null;
+    }
+
+    public synchronized void submit(BasicBlock block) {
+        if (!isAvailable()) {
+            return;
+        }
+
+        if (worker == null) {
+            worker = new Thread(this::work, "block-compiler");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        queue.add(block);
+    }
+
+    // blocks that fail to translate stay interpreted
+    public void compile(List<BasicBlock> blocks) {
+        if (!isAvailable()) {
+            return;
+        }
+
+        // a block that was decoded again after a code write replaces the older one with the same address
+        Map<String, BasicBlock> blocksByClassName = new LinkedHashMap<>();
+        for (BasicBlock block : blocks) {
+            if (block.isValid() && block.getLength() > 0) {
+                blocksByClassName.put(getClassName(block), block);
+            }
+        }
+
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (Map.Entry<String, BasicBlock> entry : blocksByClassName.entrySet()) {
+            sources.add(new SourceFile(entry.getKey(), generate(entry.getKey(), entry.getValue())));
+        }
+
+        Map<String, byte[]> classes = translate(sources);
+        if (classes != null) {
+            load(blocksByClassName, classes);
+        }
+    }
+
+    void load(Map<String, BasicBlock> blocksByClassName, Map<String, byte[]> classes) {
+        BlockClassLoader loader = new BlockClassLoader(BlockCompiler.class.getClassLoader(), classes);
+        for (Map.Entry<String, BasicBlock> entry : blocksByClassName.entrySet()) {
+            CompiledBlock compiledBlock = instantiate(loader, entry.getKey());
+            if (compiledBlock != null) {
+                entry.getValue().setCompiledBlock(compiledBlock);
+            }
+        }
+    }
+
+    public static Map<Integer, CompiledBlock> define(Map<Integer, byte[]> classFiles) {
+        Map<String, byte[]> classes = new HashMap<>();
+        for (Map.Entry<Integer, byte[]> entry : classFiles.entrySet()) {
+            classes.put(getClassName(entry.getKey()), entry.getValue());
+        }
+
+        BlockClassLoader loader = new BlockClassLoader(BlockCompiler.class.getClassLoader(), classes);
+        Map<Integer, CompiledBlock> compiledBlocks = new HashMap<>();
+        for (Integer startAddress : classFiles.keySet()) {
+            CompiledBlock compiledBlock = instantiate(loader, getClassName(startAddress));
+            if (compiledBlock != null) {
+                compiledBlocks.put(startAddress, compiledBlock);
+            }
+        }
+        return compiledBlocks;
+    }
+
+    public static byte[] getClassFile(CompiledBlock compiledBlock) {
+        Class<?> type = compiledBlock.getClass();
+        ClassLoader loader = type.getClassLoader();
+        return loader instanceof BlockClassLoader ? ((BlockClassLoader) loader).getClassFile(type.getName()) : null;
+    }
+
+    private static CompiledBlock instantiate(BlockClassLoader loader, String className) {
+        try {
+            Class<?> type = loader.loadClass(className);
+            return (CompiledBlock) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+            return null;
+        }
+    }
+
+    static String getClassName(BasicBlock block) {
+        return getClassName(block.getStartAddress());
+    }
+
+    static String getClassName(int startAddress) {
+        return String.format("%s.Block%04X", PACKAGE, startAddress);
+    }
+
+    static String generate(String className, BasicBlock block) {
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n")
+                .append("import com.opensim51.simulator.instruction.DispatchMode;\n")
+                .append("import com.opensim51.simulator.instruction.InstructionFactory;\n")
+                .append("import com.opensim51.simulator.instruction.Operation;\n")
+                .append("import com.opensim51.simulator.jit.CompiledBlock;\n")
+                .append("import com.opensim51.simulator.memory.MemoryUnit;\n\n")
+                .append("public final class ").append(simpleName).append(" implements CompiledBlock {\n\n");
+
+        for (int index = 0; index < block.getLength(); index++) {
+            source.append(String.format("    private static final Operation O%d = "
+                            + "InstructionFactory.getByOpcode(0x%02x, DispatchMode.SPECIALIZED).getOperation();\n",
+                    index, block.getOpcode(index)));
+        }
+
+        source.append("\n    @Override\n    public int execute(MemoryUnit memoryUnit) {\n");
+        int last = block.getLength() - 1;
+        for (int index = 0; index <= last; index++) {
+            source.append(String.format("        %sO%d.execute(0x%04x, 0x%02x, 0x%02x, memoryUnit);\n",
+                    index == last ? "return " : "", index, block.getAddress(index), block.getOperand1(index),
+                    block.getOperand2(index)));
+        }
+        source.append("    }\n\n}\n");
+
+        return source.toString();
+    }
+
+    private Map<String, byte[]> translate(List<JavaFileObject> sources) {
+        if (sources.isEmpty()) {
+            return null;
+        }
+
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, null);
+        try (ClassFileManager fileManager = new ClassFileManager(standardFileManager)) {
+            List<String> options = Arrays.asList("-classpath", classPath, "-g:none", "-proc:none", "-nowarn");
+            Boolean success = compiler.getTask(null, fileManager, diagnostic -> {
+            }, options, null, sources).call();
+
+            return Boolean.TRUE.equals(success) ? fileManager.getClasses() : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void work() {
+        List<BasicBlock> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(queue.take());
+                Thread.sleep(BATCH_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            queue.drainTo(batch);
+            compile(batch);
+            batch.clear();
+        }
+    }
+
+    private static String findClassPath() {
+        try {
+            CodeSource codeSource = MemoryUnit.class.getProtectionDomain().getCodeSource();
+            return codeSource == null ? null : Paths.get(codeSource.getLocation().toURI()).toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String source;
+
+        SourceFile(String className, String source) {
+            super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+            this.source = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return source;
+        }
+
+    }
+
+    private static class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> outputs = new HashMap<>();
+
+        ClassFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            outputs.put(className, output);
+
+            URI uri = URI.create("bytes:///" + className.replace('.', '/') + kind.extension);
+            return new SimpleJavaFileObject(uri, kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return output;
+                }
+            };
+        }
+
+        Map<String, byte[]> getClasses() {
+            Map<String, byte[]> classes = new HashMap<>();
+            for (Map.Entry<String, ByteArrayOutputStream> entry : outputs.entrySet()) {
+                classes.put(entry.getKey(), entry.getValue().toByteArray());
+            }
+            return classes;
+        }
+
+    }
+
+}
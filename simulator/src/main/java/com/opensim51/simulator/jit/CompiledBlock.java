@@ -0,0 +1,10 @@
+package com.opensim51.simulator.jit;
+
+import com.opensim51.simulator.memory.MemoryUnit;
+
+// a basic block translated into a JVM class, runs all of its instructions and returns the next program counter
+public interface CompiledBlock {
+
+    int execute(MemoryUnit memoryUnit);
+
+}
@@ -0,0 +1,178 @@
+package com.opensim51.simulator.jit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// one directory per image named after the SHA-256 of the code, the least recently used are evicted first
+public class TranslationCache {
+
+    private static final String VERSION_FILE = "version";
+    private static final String CLASS_FILE_SUFFIX = ".class";
+
+    private final Path directory;
+    private final long maxSize;
+
+    public TranslationCache(Path directory, long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        Files.createDirectories(directory);
+        checkVersion();
+    }
+
+    public static String hash(byte[] code) {
+        try {
+            StringBuilder hash = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(code)) {
+                hash.append(String.format("%02x", b));
+            }
+            return hash.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized Map<Integer, byte[]> load(String imageHash) {
+        Map<Integer, byte[]> classFiles = new HashMap<>();
+
+        Path imageDirectory = directory.resolve(imageHash);
+        if (!Files.isDirectory(imageDirectory)) {
+            return classFiles;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(imageDirectory, "*" + CLASS_FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int startAddress = Integer.parseInt(name.substring(0, name.length() - CLASS_FILE_SUFFIX.length()), 16);
+                classFiles.put(startAddress, Files.readAllBytes(file));
+            }
+
+            touch(imageDirectory);
+        } catch (IOException | NumberFormatException e) {
+
+            // a damaged entry is as good as a missing one
+            classFiles.clear();
+        }
+
+        return classFiles;
+    }
+
+    public synchronized void store(String imageHash, Map<Integer, byte[]> classFiles) throws IOException {
+        Path imageDirectory = directory.resolve(imageHash);
+        Files.createDirectories(imageDirectory);
+
+        for (Map.Entry<Integer, byte[]> entry : classFiles.entrySet()) {
+            Path file = imageDirectory.resolve(String.format("%04X%s", entry.getKey(), CLASS_FILE_SUFFIX));
+            if (!Files.exists(file)) {
+
+                // other simulators may read the cache at the same time, so a file appears only when complete
+                Path temporary = Files.createTempFile(imageDirectory, null, null);
+                Files.write(temporary, entry.getValue());
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+
+        touch(imageDirectory);
+        evict();
+    }
+
+    public synchronized void clear() throws IOException {
+        for (Path imageDirectory : getImageDirectories()) {
+            delete(imageDirectory);
+        }
+    }
+
+    public long getSize() throws IOException {
+        long size = 0;
+        for (Path imageDirectory : getImageDirectories()) {
+            size += getSize(imageDirectory);
+        }
+        return size;
+    }
+
+    // the translation version and the Java version the class files were compiled for, any change drops everything
+    static String getVersion() {
+        return BlockCompiler.TRANSLATION_VERSION + "/" + System.getProperty("java.specification.version");
+    }
+
+    private void checkVersion() throws IOException {
+        Path versionFile = directory.resolve(VERSION_FILE);
+        String version = getVersion();
+
+        if (Files.exists(versionFile)
+                && version.equals(new String(Files.readAllBytes(versionFile), StandardCharsets.UTF_8).trim())) {
+            return;
+        }
+
+        clear();
+        Files.write(versionFile, version.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void evict() throws IOException {
+        List<Path> imageDirectories = getImageDirectories();
+        Map<Path, FileTime> accessTimes = new HashMap<>();
+        for (Path imageDirectory : imageDirectories) {
+            accessTimes.put(imageDirectory, Files.getLastModifiedTime(imageDirectory));
+        }
+        imageDirectories.sort(Comparator.comparing(accessTimes::get));
+
+        long size = getSize();
+        for (Path imageDirectory : imageDirectories) {
+            if (size <= maxSize) {
+                break;
+            }
+
+            size -= getSize(imageDirectory);
+            delete(imageDirectory);
+        }
+    }
+
+    private List<Path> getImageDirectories() throws IOException {
+        List<Path> imageDirectories = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path entry : entries) {
+                imageDirectories.add(entry);
+            }
+        }
+        return imageDirectories;
+    }
+
+    private static void touch(Path imageDirectory) throws IOException {
+        Files.setLastModifiedTime(imageDirectory, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    private static long getSize(Path imageDirectory) throws IOException {
+        long size = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(imageDirectory)) {
+            for (Path file : files) {
+                size += Files.size(file);
+            }
+        }
+        return size;
+    }
+
+    private static void delete(Path imageDirectory) throws IOException {
+        try (Stream<Path> files = Files.walk(imageDirectory)) {
+            List<Path> paths = new ArrayList<>();
+            files.forEach(paths::add);
+
+            for (int index = paths.size() - 1; index >= 0; index--) {
+                Files.deleteIfExists(paths.get(index));
+            }
+        }
+    }
+
+}
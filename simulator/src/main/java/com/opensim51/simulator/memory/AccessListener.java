@@ -0,0 +1,9 @@
+package com.opensim51.simulator.memory;
+
+// brings a lazily updated register up to date before it is accessed, a read sees the value returned
+@FunctionalInterface
+public interface AccessListener {
+
+    int accessing(int address);
+
+}
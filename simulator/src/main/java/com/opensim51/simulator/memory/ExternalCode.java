@@ -7,10 +7,34 @@ public class ExternalCode extends Memory {
 
     private static final int MEMORY_SIZE = 0x10000;
 
+    private WriteListener writeListener;
+
     public ExternalCode() {
         super(MEMORY_SIZE);
     }
 
+    @Override
+    public void write(int address, int value) {
+        super.write(address, value);
+
+        if (writeListener != null) {
+            writeListener.written(address, value & 0xff);
+        }
+    }
+
+    @Override
+    public void written(int address, int length) {
+        if (writeListener != null) {
+            for (int index = address; index < address + length; index++) {
+                writeListener.written(index, peek(index));
+            }
+        }
+    }
+
+    public void setWriteListener(WriteListener writeListener) {
+        this.writeListener = writeListener;
+    }
+
     public UInt8 getCellValue(UInt16 address) {
         return super.getCellValue(address.toInt());
     }
@@ -3,9 +3,40 @@ package com.opensim51.simulator.memory;
 import com.opensim51.simulator.memory.datatype.UInt16;
 import com.opensim51.simulator.memory.datatype.UInt8;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class InternalData extends Memory {
 
     private static final int MEMORY_SIZE = 0x100;
+    private static final int SFR_BASE = 0x80;
+    private static final int SFR_COUNT = MEMORY_SIZE - SFR_BASE;
+    private static final int PSW_ADDRESS = 0xd0;
+    private static final int ACC_ADDRESS = 0xe0;
+    private static final int P = 0x01;
+
+    // bits 0x00..0x7f live in the bytes 0x20..0x2f, the others in the SFR at their round address
+    private static final int[] BIT_BYTE_ADDRESSES = new int[0x100];
+    private static final int[] BIT_MASKS = new int[0x100];
+
+    static {
+        for (int bitAddress = 0; bitAddress < 0x100; bitAddress++) {
+            BIT_BYTE_ADDRESSES[bitAddress] = bitAddress <= 0x7f ? 0x20 + bitAddress / 0x8 : bitAddress & 0xf8;
+            BIT_MASKS[bitAddress] = 1 << (bitAddress & 0x7);
+        }
+    }
+
+    // indexed from 0x80
+    private final WriteListener[][] writeListeners = new WriteListener[SFR_COUNT][];
+    private final AccessListener[] accessListeners = new AccessListener[SFR_COUNT];
+
+    // the listeners of the peripherals, restored by removeAddedListeners
+    private WriteListener[][] markedWriteListeners = new WriteListener[SFR_COUNT][];
+    private AccessListener[] markedAccessListeners = new AccessListener[SFR_COUNT];
+
+    // the address of R0 in the bank selected by RS1 and RS0, follows every write of PSW
+    private int registerBase;
 
     // register bank 0
     public final Cell R0 = new RegisterCell(0x0);
@@ -51,10 +82,134 @@ public class InternalData extends Memory {
     public InternalData() {
         super(MEMORY_SIZE);
 
+        powerOn();
+    }
+
+    public void reset() {
+        clear();
+        powerOn();
+    }
+
+    private void powerOn() {
         P0.setValue(UInt8.MAX_VALUE);
         P1.setValue(UInt8.MAX_VALUE);
         P2.setValue(UInt8.MAX_VALUE);
         P3.setValue(UInt8.MAX_VALUE);
+        SP.setValue(UInt8.valueOf(0x08));
+    }
+
+    @Override
+    public int read(int address) {
+        if (address >= SFR_BASE && address < MEMORY_SIZE) {
+            AccessListener accessListener = accessListeners[address - SFR_BASE];
+            if (accessListener != null) {
+                return reportRead(address, accessListener.accessing(address));
+            }
+        }
+
+        return super.read(address);
+    }
+
+    @Override
+    public void write(int address, int value) {
+        if (address < SFR_BASE || address >= MEMORY_SIZE) {
+            super.write(address, value);
+            return;
+        }
+
+        AccessListener accessListener = accessListeners[address - SFR_BASE];
+        if (accessListener != null) {
+            accessListener.accessing(address);
+        }
+
+        super.write(address, value);
+        notifyWritten(address, value & 0xff);
+    }
+
+    @Override
+    public void written(int address, int length) {
+        for (int index = Math.max(address, SFR_BASE); index < address + length; index++) {
+            notifyWritten(index, super.peek(index));
+        }
+    }
+
+    // the special function registers go through read and write so that their listeners see every access
+    @Override
+    protected boolean isDirect(int address, int length) {
+        return address + length <= SFR_BASE;
+    }
+
+    private void notifyWritten(int address, int value) {
+        if (address == PSW_ADDRESS) {
+            registerBase = value & 0x18;
+        }
+
+        // P is no storage of its own but the parity of ACC, a write of PSW can not change it
+        if (address == ACC_ADDRESS || address == PSW_ADDRESS) {
+            int psw = super.peek(PSW_ADDRESS);
+            if ((psw & P) != (Integer.bitCount(super.peek(ACC_ADDRESS)) & P)) {
+                super.write(PSW_ADDRESS, psw ^ P);
+            }
+            if (address == PSW_ADDRESS) {
+                value = super.peek(PSW_ADDRESS);
+            }
+        }
+
+        WriteListener[] listeners = writeListeners[address - SFR_BASE];
+        if (listeners != null) {
+            for (WriteListener listener : listeners) {
+                listener.written(address, value);
+            }
+        }
+    }
+
+    // listeners are called after every write, also when the value does not change
+    public synchronized void addWriteListener(int address, WriteListener listener) {
+        checkSfrAddress(address);
+
+        WriteListener[] listeners = writeListeners[address - SFR_BASE];
+        if (listeners == null) {
+            writeListeners[address - SFR_BASE] = new WriteListener[]{listener};
+        } else {
+            WriteListener[] added = Arrays.copyOf(listeners, listeners.length + 1);
+            added[listeners.length] = listener;
+            writeListeners[address - SFR_BASE] = added;
+        }
+    }
+
+    public synchronized void removeWriteListener(int address, WriteListener listener) {
+        checkSfrAddress(address);
+
+        WriteListener[] listeners = writeListeners[address - SFR_BASE];
+        if (listeners == null) {
+            return;
+        }
+
+        List<WriteListener> remaining = new ArrayList<>(Arrays.asList(listeners));
+        remaining.remove(listener);
+        writeListeners[address - SFR_BASE] = remaining.isEmpty() ? null : remaining.toArray(new WriteListener[0]);
+    }
+
+    // a register has at most one owner that keeps it up to date
+    public void setAccessListener(int address, AccessListener listener) {
+        checkSfrAddress(address);
+        accessListeners[address - SFR_BASE] = listener;
+    }
+
+    public synchronized void markListeners() {
+        markedWriteListeners = writeListeners.clone();
+        markedAccessListeners = accessListeners.clone();
+    }
+
+    public synchronized void removeAddedListeners() {
+        System.arraycopy(markedWriteListeners, 0, writeListeners, 0, SFR_COUNT);
+        System.arraycopy(markedAccessListeners, 0, accessListeners, 0, SFR_COUNT);
+    }
+
+    private void checkSfrAddress(int address) {
+        if (address < SFR_BASE || address >= MEMORY_SIZE) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
     }
 
     public UInt8 getCellValue(UInt8 address) {
@@ -65,8 +220,35 @@ public class InternalData extends Memory {
         setCellValue(address.toInt(), value);
     }
 
+    public int readRegister(int number) {
+        return read(registerAddress(number));
+    }
+
+    public void writeRegister(int number, int value) {
+        write(registerAddress(number), value);
+    }
+
+    public int getDptr() {
+        return (DPH.read() << 8) | DPL.read();
+    }
+
+    public void setDptr(int value) {
+        DPH.write((value >> 8) & 0xff);
+        DPL.write(value & 0xff);
+    }
+
+    public int getRegisterBase() {
+        return registerBase;
+    }
+
+    private int registerAddress(int number) {
+        return registerBase | number;
+    }
+
     public interface Bit {
 
+        int getBitAddress();
+
         boolean getValue();
 
         void setValue(boolean value);
@@ -146,11 +328,19 @@ public class InternalData extends Memory {
         }
 
         public void setBitValue(int bitAddress, boolean value) {
-            new UnnamedBit(bitAddress).setValue(value);
+            checkRange(0xff, bitAddress);
+            writeBit(BIT_BYTE_ADDRESSES[bitAddress], BIT_MASKS[bitAddress], value);
         }
 
         public boolean getBitValue(int bitAddress) {
-            return new UnnamedBit(bitAddress).getValue();
+            checkRange(0xff, bitAddress);
+            return (read(BIT_BYTE_ADDRESSES[bitAddress]) & BIT_MASKS[bitAddress]) != 0;
+        }
+
+        public void toggleBit(int bitAddress) {
+            checkRange(0xff, bitAddress);
+            int byteAddress = BIT_BYTE_ADDRESSES[bitAddress];
+            write(byteAddress, read(byteAddress) ^ BIT_MASKS[bitAddress]);
         }
     }
 
@@ -166,19 +356,12 @@ public class InternalData extends Memory {
 
         public boolean getBitValue(int position) {
             checkRange(7, position);
-
-            UInt8 one = UInt8.valueOf(1);
-            return getValue().shr(position).and(one).equals(one);
+            return (read() & (1 << position)) != 0;
         }
 
         public void setBitValue(int position, boolean value) {
             checkRange(7, position);
-
-            if (value) {
-                setValue(getValue().stb(position));
-            } else {
-                setValue(getValue().clb(position));
-            }
+            writeBit(address, 1 << position, value);
         }
 
     }
@@ -186,27 +369,38 @@ public class InternalData extends Memory {
     public class Stack {
 
         private Stack() {
-            SP.setValue(UInt8.valueOf(0x08));
         }
 
         public void push(UInt8 value) {
-            UInt8 sp = SP.getValue().inc();
-            setCellValue(sp, value);
-            SP.setValue(sp);
+            pushByte(value.toInt());
         }
 
         public void push(UInt16 value) {
-            UInt8 sp = SP.getValue().inc();
-            setCellValue(sp, value.toUInt8());
-            sp = sp.inc();
-            setCellValue(sp, value.shr(8).toUInt8());
-            SP.setValue(sp);
+            pushWord(value.toInt());
         }
 
         public UInt8 pop() {
-            UInt8 sp = SP.getValue();
-            UInt8 value = getCellValue(sp);
-            SP.setValue(sp.sub(UInt8.ONE));
+            return UInt8.valueOf(popByte());
+        }
+
+        public void pushByte(int value) {
+            int sp = (SP.read() + 1) & 0xff;
+            write(sp, value);
+            SP.write(sp);
+        }
+
+        public void pushWord(int value) {
+            int sp = (SP.read() + 1) & 0xff;
+            write(sp, value & 0xff);
+            sp = (sp + 1) & 0xff;
+            write(sp, (value >> 8) & 0xff);
+            SP.write(sp);
+        }
+
+        public int popByte() {
+            int sp = SP.read();
+            int value = read(sp);
+            SP.write((sp - 1) & 0xff);
             return value;
         }
 
@@ -214,60 +408,63 @@ public class InternalData extends Memory {
 
     private class RegisterCell extends Cell {
 
-        RegisterCell(int address) {
-            super(address);
+        RegisterCell(int number) {
+            super(number);
         }
 
         @Override
-        public UInt8 getValue() {
-            determineRegisterBank();
-            return super.getValue();
+        public int getAddress() {
+            return registerBase | address;
         }
 
         @Override
-        public void setValue(UInt8 value) {
-            determineRegisterBank();
-            super.setValue(value);
-        }
-
-        private void determineRegisterBank() {
-            boolean rs1 = bitField.RS1.getValue();
-            boolean rs0 = bitField.RS0.getValue();
-            if (!rs1 && !rs0) {
-                address = scale(address, 0x0);
-            } else if (!rs1) {
-                address = scale(address, 0x8);
-            } else if (!rs0) {
-                address = scale(address, 0x10);
-            } else {
-                address = scale(address, 0x18);
-            }
+        public int read() {
+            return InternalData.this.read(registerBase | address);
         }
 
-        private int scale(int address, int offset) {
-            return (address % 8) + offset;
+        @Override
+        public int peek() {
+            return InternalData.this.peek(registerBase | address);
         }
 
+        @Override
+        public void write(int value) {
+            InternalData.this.write(registerBase | address, value);
+        }
+
+    }
+
+    private void writeBit(int byteAddress, int mask, boolean value) {
+        int data = read(byteAddress);
+        write(byteAddress, value ? data | mask : data & ~mask);
     }
 
     private class NamedBit implements Bit {
 
-        private final BitAddressableCell cell;
-        private final int position;
+        private final int byteAddress;
+        private final int mask;
 
         NamedBit(BitAddressableCell cell, int position) {
-            this.cell = cell;
-            this.position = position;
+            checkRange(7, position);
+
+            this.byteAddress = cell.address;
+            this.mask = 1 << position;
+        }
+
+        // the bit-addressable SFRs sit at multiples of eight
+        @Override
+        public int getBitAddress() {
+            return byteAddress | Integer.numberOfTrailingZeros(mask);
         }
 
         @Override
         public boolean getValue() {
-            return cell.getBitValue(position);
+            return (read(byteAddress) & mask) != 0;
         }
 
         @Override
         public void setValue(boolean value) {
-            cell.setBitValue(position, value);
+            writeBit(byteAddress, mask, value);
         }
 
     }
@@ -275,38 +472,30 @@ public class InternalData extends Memory {
     private class UnnamedBit implements Bit {
 
         private final int bitAddress;
+        private final int byteAddress;
+        private final int mask;
 
-        UnnamedBit(int address) {
-            if (!isBitAddress(address)) {
-                throw new IllegalArgumentException("Value is out of range");
-            }
+        UnnamedBit(int bitAddress) {
+            checkRange(0xff, bitAddress);
 
-            this.bitAddress = address;
+            this.bitAddress = bitAddress;
+            this.byteAddress = BIT_BYTE_ADDRESSES[bitAddress];
+            this.mask = BIT_MASKS[bitAddress];
         }
 
         @Override
-        public boolean getValue() {
-            int cellAddress = determineCellAddress();
-
-            BitAddressableCell cell = new BitAddressableCell(cellAddress);
-            return cell.getBitValue(bitAddress % 0x8);
+        public int getBitAddress() {
+            return bitAddress;
         }
 
         @Override
-        public void setValue(boolean value) {
-            int cellAddress = determineCellAddress();
-
-            BitAddressableCell cell = new BitAddressableCell(cellAddress);
-            cell.setBitValue(bitAddress % 0x8, value);
-        }
-
-        private int determineCellAddress() {
-            int cellAddress = (bitAddress - (bitAddress % 0x8));
-            return bitAddress <= 0x7f ? cellAddress + 0x20 : cellAddress;
+        public boolean getValue() {
+            return (read(byteAddress) & mask) != 0;
         }
 
-        private boolean isBitAddress(int address) {
-            return address >= 0x0 && address <= 0x7f || (address - (address % 0x8)) % 0x8 == 0;
+        @Override
+        public void setValue(boolean value) {
+            writeBit(byteAddress, mask, value);
         }
 
     }
@@ -2,32 +2,533 @@ package com.opensim51.simulator.memory;
 
 import com.opensim51.simulator.memory.datatype.UInt8;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Memory {
 
-    private int size;
-    private Map<Integer, UInt8> rawMemory;
+    // the accesses a watchpoint reports, or-ed together
+    public static final int WATCH_READ = 1;
+    public static final int WATCH_WRITE = 2;
+
+    public static final int PAGE_SIZE = 256;
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // every page starts out as this one and gets a copy of its own on the first write
+    private static final Page ZERO_PAGE = new Page(new byte[PAGE_SIZE]);
+
+    private final int size;
+
+    // pages of 256 bytes that forks share until one of them writes
+    private Page[] pages;
+
+    // the arrays are published complete so that other threads peeking never see them half built
+    private volatile byte[][] pageData;
+    private boolean[] exclusive;
+
+    // set instead of the pages while the cells are a mapped file or a view, a switch sets the new storage first
+    private volatile ByteBuffer buffer;
+
+    // set while the buffer is a read-only mapping shared with other processes, the first write copies it into pages
+    private boolean shared;
+
+    // null until the first watchpoint is set
+    private byte[] watches;
+    private WatchListener watchListener;
+
+    private WriteListener writeTracer;
 
     protected Memory(int size) {
-        this(size, new HashMap<>());
+        this.size = size;
+        allocatePages();
     }
 
-    private Memory(int size, Map<Integer, UInt8> rawMemory) {
-        this.size = size;
-        this.rawMemory = rawMemory;
+    public int read(int address) {
+        return reportRead(address, peek(address));
     }
 
-    public UInt8 getCellValue(int address) {
+    final int reportRead(int address, int value) {
+        byte[] watches = this.watches;
+        if (watches != null && (watches[address] & WATCH_READ) != 0) {
+            watched(address, value, false);
+        }
+        return value;
+    }
+
+    // reads a cell without reporting it to the watch listener
+    public int peek(int address) {
         checkRange(size - 1, address);
 
-        return rawMemory.getOrDefault(address, UInt8.ZERO);
+        byte[][] pageData = this.pageData;
+        if (pageData == null) {
+            ByteBuffer buffer = this.buffer;
+            if (buffer != null) {
+                return buffer.get(address) & 0xff;
+            }
+
+            // the buffer was copied into pages in between
+            pageData = this.pageData;
+        }
+        return pageData[address >>> PAGE_SHIFT][address & PAGE_MASK] & 0xff;
     }
 
-    public void setCellValue(int address, UInt8 value) {
+    public void write(int address, int value) {
+        checkRange(size - 1, address);
+
+        if (shared) {
+            detach();
+        }
+
+        byte[][] pageData = this.pageData;
+        if (pageData != null) {
+            int page = address >>> PAGE_SHIFT;
+            if (!exclusive[page]) {
+                own(page);
+            }
+            pageData[page][address & PAGE_MASK] = (byte) value;
+        } else {
+            buffer.put(address, (byte) value);
+        }
+
+        byte[] watches = this.watches;
+        if (watches != null && (watches[address] & WATCH_WRITE) != 0) {
+            watched(address, value & 0xff, true);
+        }
+
+        WriteListener writeTracer = this.writeTracer;
+        if (writeTracer != null) {
+            writeTracer.written(address, value & 0xff);
+        }
+    }
+
+    public void read(int address, byte[] destination, int offset, int length) {
+        peek(address, destination, offset, length);
+
+        if (watches != null) {
+            watchedRange(address, length, WATCH_READ);
+        }
+    }
+
+    public void peek(int address, byte[] destination, int offset, int length) {
+        checkBounds(address, length);
+
+        if (!isDirect(address, length)) {
+            for (int index = 0; index < length; index++) {
+                destination[offset + index] = (byte) peek(address + index);
+            }
+            return;
+        }
+
+        byte[][] pageData = this.pageData;
+        ByteBuffer buffer = pageData == null ? this.buffer : null;
+        if (pageData == null && buffer == null) {
+            pageData = this.pageData;
+        }
+
+        if (pageData != null) {
+            while (length > 0) {
+                int chunk = Math.min(length, PAGE_SIZE - (address & PAGE_MASK));
+                System.arraycopy(pageData[address >>> PAGE_SHIFT], address & PAGE_MASK, destination, offset, chunk);
+                address += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        } else {
+            ByteBuffer view = buffer.duplicate();
+            ((Buffer) view).position(address);
+            view.get(destination, offset, length);
+        }
+    }
+
+    public void write(int address, byte[] source, int offset, int length) {
+        checkBounds(address, length);
+
+        if (!isDirect(address, length)) {
+            for (int index = 0; index < length; index++) {
+                write(address + index, source[offset + index]);
+            }
+            return;
+        }
+
+        if (shared) {
+            detach();
+        }
+
+        if (pageData != null) {
+            int start = address;
+            int remaining = length;
+            while (remaining > 0) {
+                int page = start >>> PAGE_SHIFT;
+                int chunk = Math.min(remaining, PAGE_SIZE - (start & PAGE_MASK));
+                if (!exclusive[page]) {
+                    own(page);
+                }
+                System.arraycopy(source, offset, pageData[page], start & PAGE_MASK, chunk);
+                start += chunk;
+                offset += chunk;
+                remaining -= chunk;
+            }
+        } else {
+            ByteBuffer view = buffer.duplicate();
+            ((Buffer) view).position(address);
+            view.put(source, offset, length);
+        }
+
+        writtenRange(address, length);
+    }
+
+    public void fill(int address, int length, int value) {
+        checkBounds(address, length);
+
+        if (!isDirect(address, length)) {
+            for (int index = 0; index < length; index++) {
+                write(address + index, value);
+            }
+            return;
+        }
+
+        if (shared) {
+            detach();
+        }
+
+        if (pageData != null) {
+            int start = address;
+            int end = address + length;
+            while (start < end) {
+                int page = start >>> PAGE_SHIFT;
+                int chunk = Math.min(end - start, PAGE_SIZE - (start & PAGE_MASK));
+                if (!exclusive[page]) {
+                    own(page);
+                }
+                Arrays.fill(pageData[page], start & PAGE_MASK, (start & PAGE_MASK) + chunk, (byte) value);
+                start += chunk;
+            }
+        } else {
+            ByteBuffer view = buffer.duplicate();
+            for (int index = address; index < address + length; index++) {
+                view.put(index, (byte) value);
+            }
+        }
+
+        writtenRange(address, length);
+    }
+
+    // overlapping ranges are copied as if through a temporary buffer
+    public void copy(int sourceAddress, int destinationAddress, int length) {
+        checkBounds(sourceAddress, length);
+        checkBounds(destinationAddress, length);
+        boolean forward = destinationAddress <= sourceAddress;
+
+        if (!isDirect(sourceAddress, length) || !isDirect(destinationAddress, length)) {
+            for (int index = 0; index < length; index++) {
+                int offset = forward ? index : length - 1 - index;
+                write(destinationAddress + offset, read(sourceAddress + offset));
+            }
+            return;
+        }
+
+        if (watches != null) {
+            watchedRange(sourceAddress, length, WATCH_READ);
+        }
+        if (shared) {
+            detach();
+        }
+
+        if (pageData != null) {
+            int remaining = length;
+            while (remaining > 0) {
+                int source = forward ? sourceAddress + length - remaining : sourceAddress + remaining;
+                int destination = forward ? destinationAddress + length - remaining : destinationAddress + remaining;
+                int chunk = forward
+                        ? Math.min(remaining, PAGE_SIZE - Math.max(source & PAGE_MASK, destination & PAGE_MASK))
+                        : Math.min(remaining, Math.min((source - 1 & PAGE_MASK) + 1, (destination - 1 & PAGE_MASK) + 1));
+                if (!forward) {
+                    source -= chunk;
+                    destination -= chunk;
+                }
+
+                int page = destination >>> PAGE_SHIFT;
+                if (!exclusive[page]) {
+                    own(page);
+                }
+                System.arraycopy(pageData[source >>> PAGE_SHIFT], source & PAGE_MASK, pageData[page],
+                        destination & PAGE_MASK, chunk);
+                remaining -= chunk;
+            }
+        } else {
+            ByteBuffer view = buffer.duplicate();
+            for (int index = 0; index < length; index++) {
+                int offset = forward ? index : length - 1 - index;
+                view.put(destinationAddress + offset, view.get(sourceAddress + offset));
+            }
+        }
+
+        writtenRange(destinationAddress, length);
+    }
+
+    private void writtenRange(int address, int length) {
+        if (watches != null) {
+            watchedRange(address, length, WATCH_WRITE);
+        }
+        if (writeTracer != null) {
+            for (int index = address; index < address + length; index++) {
+                writeTracer.written(index, peek(index));
+            }
+        }
+        written(address, length);
+    }
+
+    // turns this memory into a copy of the source sharing its pages, the source must not be written meanwhile, a
+    // processing unit forks under its lock
+    public void forkFrom(Memory source) {
+        if (source.size != size) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        if (source.shared) {
+            useBuffer(source.buffer.duplicate(), true);
+        } else if (source.pageData == null) {
+
+            // a private mapping or a buffer handed out as a view can not be shared
+            allocatePages(source.buffer.duplicate());
+        } else {
+            Page[] pages = source.pages.clone();
+            byte[][] pageData = new byte[pages.length][];
+
+            for (int page = 0; page < pages.length; page++) {
+                if (pages[page] != ZERO_PAGE) {
+                    pages[page].references.incrementAndGet();
+                }
+                pageData[page] = pages[page].data;
+                source.exclusive[page] = false;
+            }
+            usePages(pages, pageData, new boolean[pages.length]);
+        }
+
+        written(0, size);
+    }
+
+    public void setWatchpoint(int address, int access) {
         checkRange(size - 1, address);
-        rawMemory.put(address, value);
+        checkRange(WATCH_READ | WATCH_WRITE, access);
+
+        if (watches == null) {
+            if (access == 0) {
+                return;
+            }
+            watches = new byte[size];
+        }
+        watches[address] = (byte) access;
+    }
+
+    public int getWatchpoint(int address) {
+        checkRange(size - 1, address);
+        return watches == null ? 0 : watches[address];
+    }
+
+    public void clearWatchpoints() {
+        watches = null;
+    }
+
+    public boolean hasWatchpoints() {
+        return watches != null;
+    }
+
+    public void setWatchListener(WatchListener watchListener) {
+        this.watchListener = watchListener;
+    }
+
+    public void setWriteTracer(WriteListener writeTracer) {
+        this.writeTracer = writeTracer;
+    }
+
+    private void watched(int address, int value, boolean write) {
+        WatchListener watchListener = this.watchListener;
+        if (watchListener != null) {
+            watchListener.accessed(address, value, write);
+        }
+    }
+
+    private void watchedRange(int address, int length, int access) {
+        byte[] watches = this.watches;
+        for (int index = address; index < address + length; index++) {
+            if ((watches[index] & access) != 0) {
+                watched(index, peek(index), access == WATCH_WRITE);
+            }
+        }
+    }
+
+    public boolean sharesPagesWith(Memory other) {
+        if (pages == null || other.pages == null || pages.length != other.pages.length) {
+            return false;
+        }
+
+        for (int page = 0; page < pages.length; page++) {
+            if (pages[page] != other.pages[page]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void clear() {
+        allocatePages();
+
+        written(0, size);
+    }
+
+    // maps a raw image read-only and shared with other processes, the first write copies it
+    public void mapShared(Path file) throws IOException {
+        map(file, FileChannel.MapMode.READ_ONLY);
+    }
+
+    // maps a raw image copy-on-write, writes never reach the file
+    public void mapPrivate(Path file) throws IOException {
+        map(file, FileChannel.MapMode.PRIVATE);
+    }
+
+    private void map(Path file, FileChannel.MapMode mode) throws IOException {
+        OpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new OpenOption[]{StandardOpenOption.READ}
+                : new OpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            if (channel.size() != size) {
+                throw new IllegalArgumentException("Value is out of range");
+            }
+
+            useBuffer(channel.map(mode, 0, size), mode == FileChannel.MapMode.READ_ONLY);
+        }
+
+        written(0, size);
+    }
+
+    public boolean isMapped() {
+        return buffer != null && buffer.isDirect();
+    }
+
+    // the views are live, so the memory keeps its cells in a single buffer from then on and forks of it copy them
+    public ByteBuffer asReadOnlyBuffer() {
+        if (pageData != null) {
+            useBuffer(ByteBuffer.wrap(toArray()), false);
+        }
+        return buffer.asReadOnlyBuffer();
+    }
+
+    // writes through the view bypass the memory, they have to be reported with written afterwards
+    public ByteBuffer asBuffer() {
+        if (shared) {
+            detach();
+        }
+        if (pageData != null) {
+            useBuffer(ByteBuffer.wrap(toArray()), false);
+        }
+        return buffer.duplicate();
+    }
+
+    // called for a range that was stored without going through write
+    public void written(int address, int length) {
+    }
+
+    // otherwise the bulk operations go through read and write one byte at a time
+    protected boolean isDirect(int address, int length) {
+        return true;
+    }
+
+    private void allocatePages() {
+        Page[] pages = new Page[size >>> PAGE_SHIFT];
+        byte[][] pageData = new byte[pages.length][];
+
+        Arrays.fill(pages, ZERO_PAGE);
+        Arrays.fill(pageData, ZERO_PAGE.data);
+        usePages(pages, pageData, new boolean[pages.length]);
+    }
+
+    private void allocatePages(ByteBuffer source) {
+        Page[] pages = new Page[size >>> PAGE_SHIFT];
+        byte[][] pageData = new byte[pages.length][];
+        boolean[] exclusive = new boolean[pages.length];
+
+        for (int page = 0; page < pages.length; page++) {
+            pages[page] = new Page(new byte[PAGE_SIZE]);
+            pageData[page] = pages[page].data;
+            exclusive[page] = true;
+            source.get(pageData[page]);
+        }
+        usePages(pages, pageData, exclusive);
+    }
+
+    // the filled arrays are published before the buffer is dropped, a reader finds the cells in one or the other
+    private void usePages(Page[] pages, byte[][] pageData, boolean[] exclusive) {
+        Page[] released = this.pages;
+        this.pages = pages;
+        this.exclusive = exclusive;
+        this.pageData = pageData;
+        buffer = null;
+        shared = false;
+        release(released);
+    }
+
+    // gives the page a copy of its own unless no other memory refers to it any more
+    private void own(int page) {
+        Page current = pages[page];
+        if (current == ZERO_PAGE || current.references.get() > 1) {
+            Page copy = new Page(current.data.clone());
+            if (current != ZERO_PAGE) {
+                current.references.decrementAndGet();
+            }
+            pages[page] = copy;
+            pageData[page] = copy.data;
+        }
+        exclusive[page] = true;
+    }
+
+    // the buffer is set before the pages are dropped, a reader finds the cells in one or the other
+    private void useBuffer(ByteBuffer buffer, boolean shared) {
+        Page[] released = pages;
+        this.buffer = buffer;
+        this.shared = shared;
+        pages = null;
+        pageData = null;
+        exclusive = null;
+        release(released);
+    }
+
+    private static void release(Page[] pages) {
+        if (pages != null) {
+            for (Page page : pages) {
+                if (page != ZERO_PAGE) {
+                    page.references.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private byte[] toArray() {
+        byte[] array = new byte[size];
+        peek(0, array, 0, size);
+        return array;
+    }
+
+    private void detach() {
+        allocatePages(buffer.duplicate());
+    }
+
+    public UInt8 getCellValue(int address) {
+        return UInt8.valueOf(read(address));
+    }
+
+    public void setCellValue(int address, UInt8 value) {
+        write(address, value.toInt());
     }
 
     public Memory.Cell getCell(int address) {
@@ -38,12 +539,30 @@ public abstract class Memory {
         return size;
     }
 
+    void checkBounds(int address, int length) {
+        if (address < 0 || length < 0 || address > size - length) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+    }
+
     void checkRange(int upperBound, int value) {
         if (value < 0 || value > upperBound) {
             throw new IllegalArgumentException("Value is out of range");
         }
     }
 
+    private static final class Page {
+
+        private final byte[] data;
+
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        Page(byte[] data) {
+            this.data = data;
+        }
+
+    }
+
     public class Cell {
 
         protected int address;
@@ -52,12 +571,28 @@ public abstract class Memory {
             this.address = address;
         }
 
+        public int getAddress() {
+            return address;
+        }
+
         public UInt8 getValue() {
-            return getCellValue(address);
+            return UInt8.valueOf(read());
         }
 
         public void setValue(UInt8 value) {
-            setCellValue(address, value);
+            write(value.toInt());
+        }
+
+        public int read() {
+            return Memory.this.read(address);
+        }
+
+        public int peek() {
+            return Memory.this.peek(address);
+        }
+
+        public void write(int value) {
+            Memory.this.write(address, value);
         }
 
     }
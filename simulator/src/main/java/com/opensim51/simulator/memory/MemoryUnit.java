@@ -24,7 +24,18 @@ public class MemoryUnit {
         return externalCode;
     }
 
+    public MemoryUnit fork() {
+        MemoryUnit fork = new MemoryUnit();
+        fork.internalData.forkFrom(internalData);
+        fork.externalData.forkFrom(externalData);
+        fork.externalCode.forkFrom(externalCode);
+        return fork;
+    }
+
+    // the code memory keeps its program
     public void reset() {
+        internalData.reset();
+        externalData.clear();
     }
 
 }
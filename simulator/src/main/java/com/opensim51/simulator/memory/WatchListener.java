@@ -0,0 +1,8 @@
+package com.opensim51.simulator.memory;
+
+@FunctionalInterface
+public interface WatchListener {
+
+    void accessed(int address, int value, boolean write);
+
+}
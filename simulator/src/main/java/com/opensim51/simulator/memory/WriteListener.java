@@ -0,0 +1,8 @@
+package com.opensim51.simulator.memory;
+
+@FunctionalInterface
+public interface WriteListener {
+
+    void written(int address, int value);
+
+}
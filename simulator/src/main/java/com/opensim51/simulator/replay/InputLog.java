@@ -0,0 +1,110 @@
+package com.opensim51.simulator.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// the input changes of a run by cycle and the hashes of the code and the state it started from
+public class InputLog {
+
+    private static final int MAGIC = 0x52353131;
+    private static final int VERSION = 1;
+
+    private final String codeHash;
+    private final String stateHash;
+
+    private long[] cycles = new long[16];
+    private int[] inputs = new int[16];
+    private int size;
+
+    public InputLog(String codeHash, String stateHash) {
+        this.codeHash = codeHash;
+        this.stateHash = stateHash;
+    }
+
+    public String getCodeHash() {
+        return codeHash;
+    }
+
+    public String getStateHash() {
+        return stateHash;
+    }
+
+    // changes come in the order they were applied, so their cycles never decrease
+    public synchronized void add(long cycle, int address, int value) {
+        if (address < 0 || address > 0xff || size > 0 && cycle < cycles[size - 1]) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        if (size == cycles.length) {
+            cycles = Arrays.copyOf(cycles, size * 2);
+            inputs = Arrays.copyOf(inputs, size * 2);
+        }
+        cycles[size] = cycle;
+        inputs[size++] = address << 8 | value & 0xff;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getCycle(int index) {
+        checkIndex(index);
+        return cycles[index];
+    }
+
+    public synchronized int getAddress(int index) {
+        checkIndex(index);
+        return inputs[index] >>> 8;
+    }
+
+    public synchronized int getValue(int index) {
+        checkIndex(index);
+        return inputs[index] & 0xff;
+    }
+
+    public synchronized void save(Path file) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(codeHash);
+            output.writeUTF(stateHash);
+            output.writeInt(size);
+            for (int index = 0; index < size; index++) {
+                output.writeLong(cycles[index]);
+                output.writeShort(inputs[index]);
+            }
+        }
+    }
+
+    public static InputLog load(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not an input log");
+            }
+
+            InputLog log = new InputLog(input.readUTF(), input.readUTF());
+            int size = input.readInt();
+            for (int index = 0; index < size; index++) {
+                long cycle = input.readLong();
+                int packed = input.readUnsignedShort();
+                log.add(cycle, packed >>> 8, packed);
+            }
+            return log;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Not an input log", e);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.MemoryUnit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// one bit per code address, set and cleared from any thread while the program runs
+public class Breakpoints {
+
+    private static final int CODE_SIZE = 0x10000;
+
+    private final AtomicLongArray bits = new AtomicLongArray(CODE_SIZE >>> 6);
+
+    private volatile int count;
+
+    // null until the first conditional breakpoint is set
+    private volatile AtomicReferenceArray<Condition> conditions;
+
+    // stops the program wherever it holds, evaluated after every instruction while set
+    private volatile Condition condition;
+
+    public boolean contains(int address) {
+        return (bits.get(address >>> 6) & 1L << address) != 0;
+    }
+
+    public synchronized void set(int address) {
+        set(address, null);
+    }
+
+    public synchronized void set(int address, Condition condition) {
+        checkAddress(address);
+        if (condition != null && conditions == null) {
+            conditions = new AtomicReferenceArray<>(CODE_SIZE);
+        }
+        if (conditions != null) {
+            conditions.set(address, condition);
+        }
+
+        long word = bits.get(address >>> 6);
+        if ((word & 1L << address) == 0) {
+            bits.set(address >>> 6, word | 1L << address);
+            count++;
+        }
+    }
+
+    public synchronized void clear(int address) {
+        checkAddress(address);
+        long word = bits.get(address >>> 6);
+        if ((word & 1L << address) != 0) {
+            bits.set(address >>> 6, word & ~(1L << address));
+            count--;
+        }
+        if (conditions != null) {
+            conditions.set(address, null);
+        }
+    }
+
+    public synchronized void clearAll() {
+        for (int index = 0; index < bits.length(); index++) {
+            bits.set(index, 0);
+        }
+        count = 0;
+        conditions = null;
+        condition = null;
+    }
+
+    public boolean isEmpty() {
+        return count == 0 && condition == null;
+    }
+
+    public Condition getCondition() {
+        return condition;
+    }
+
+    public void setCondition(Condition condition) {
+        this.condition = condition;
+    }
+
+    // the conditions peek at the registers, the timer is brought up to date first
+    boolean isHit(int address, MemoryUnit memoryUnit, Timer0 timer0) {
+        Condition addressCondition = null;
+        if (contains(address)) {
+            AtomicReferenceArray<Condition> conditions = this.conditions;
+            addressCondition = conditions == null ? null : conditions.get(address);
+            if (addressCondition == null) {
+                return true;
+            }
+        }
+
+        Condition condition = this.condition;
+        if (addressCondition == null && condition == null) {
+            return false;
+        }
+
+        timer0.synchronize();
+        return addressCondition != null && addressCondition.isMet(memoryUnit, address)
+                || condition != null && condition.isMet(memoryUnit, address);
+    }
+
+    // a translated block that covers one of the addresses has to be interpreted to stop there
+    boolean mayStopWithin(int address, int length) {
+        if (condition != null) {
+            return true;
+        }
+        if (count == 0) {
+            return false;
+        }
+
+        for (int offset = 1; offset < length; offset++) {
+            if (contains((address + offset) & 0xffff)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void checkAddress(int address) {
+        if (address < 0 || address >= CODE_SIZE) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+    }
+
+}
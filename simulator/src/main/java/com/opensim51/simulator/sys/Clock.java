@@ -0,0 +1,41 @@
+package com.opensim51.simulator.sys;
+
+// the classic 8051 takes 12 oscillator periods per machine cycle, newer derivatives 6 or 1
+public class Clock {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final long oscillatorFrequency;
+    private final int clocksPerMachineCycle;
+
+    public Clock(long oscillatorFrequency, int clocksPerMachineCycle) {
+        if (oscillatorFrequency <= 0 || clocksPerMachineCycle <= 0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        this.oscillatorFrequency = oscillatorFrequency;
+        this.clocksPerMachineCycle = clocksPerMachineCycle;
+    }
+
+    public long getOscillatorFrequency() {
+        return oscillatorFrequency;
+    }
+
+    public int getClocksPerMachineCycle() {
+        return clocksPerMachineCycle;
+    }
+
+    public long toNanos(long machineCycles) {
+        long clocks = machineCycles * clocksPerMachineCycle;
+
+        // split into whole seconds and the rest so that long runs do not overflow
+        long seconds = clocks / oscillatorFrequency;
+        long remainder = clocks % oscillatorFrequency;
+        return seconds * NANOS_PER_SECOND + remainder * NANOS_PER_SECOND / oscillatorFrequency;
+    }
+
+    public double toSeconds(long machineCycles) {
+        return (double) machineCycles * clocksPerMachineCycle / oscillatorFrequency;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.MemoryUnit;
+
+// a predicate on the machine state, evaluated with the program counter of the next instruction
+@FunctionalInterface
+public interface Condition {
+
+    boolean isMet(MemoryUnit memoryUnit, int pc);
+
+}
@@ -0,0 +1,335 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.Memory;
+import com.opensim51.simulator.memory.MemoryUnit;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// compiles an expression such as "ACC == 0x3F && R7 < 2" into a tree of operands once, with the operators of C
+public class ConditionCompiler {
+
+    private static final Map<String, Integer> SFR_ADDRESSES = new HashMap<>();
+    private static final Map<String, Integer> BIT_ADDRESSES = new HashMap<>();
+
+    static {
+        InternalData prototype = new InternalData();
+        try {
+            for (Field field : InternalData.class.getFields()) {
+                Object value = field.get(prototype);
+                if (value instanceof Memory.Cell && !field.getName().matches("R[0-7]")) {
+                    SFR_ADDRESSES.put(field.getName(), ((Memory.Cell) value).getAddress());
+                }
+            }
+            for (Field field : InternalData.BitField.class.getFields()) {
+                Object value = field.get(prototype.bitField);
+                if (value instanceof InternalData.Bit) {
+                    BIT_ADDRESSES.put(field.getName(), ((InternalData.Bit) value).getBitAddress());
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        SFR_ADDRESSES.put("A", SFR_ADDRESSES.get("ACC"));
+    }
+
+    private final List<String> tokens;
+    private int position;
+
+    private ConditionCompiler(String expression) {
+        this.tokens = tokenize(expression);
+    }
+
+    public static Condition compile(String expression) {
+        ConditionCompiler compiler = new ConditionCompiler(expression);
+        Operand operand = compiler.parseOr();
+        if (compiler.position < compiler.tokens.size()) {
+            throw compiler.error();
+        }
+
+        return (memoryUnit, pc) -> operand.get(memoryUnit, pc) != 0;
+    }
+
+    private Operand parseOr() {
+        Operand operand = parseAnd();
+        while (accept("||")) {
+            Operand left = operand;
+            Operand right = parseAnd();
+            operand = (m, pc) -> left.get(m, pc) != 0 || right.get(m, pc) != 0 ? 1 : 0;
+        }
+        return operand;
+    }
+
+    private Operand parseAnd() {
+        Operand operand = parseBitOr();
+        while (accept("&&")) {
+            Operand left = operand;
+            Operand right = parseBitOr();
+            operand = (m, pc) -> left.get(m, pc) != 0 && right.get(m, pc) != 0 ? 1 : 0;
+        }
+        return operand;
+    }
+
+    private Operand parseBitOr() {
+        Operand operand = parseBitXor();
+        while (accept("|")) {
+            Operand left = operand;
+            Operand right = parseBitXor();
+            operand = (m, pc) -> left.get(m, pc) | right.get(m, pc);
+        }
+        return operand;
+    }
+
+    private Operand parseBitXor() {
+        Operand operand = parseBitAnd();
+        while (accept("^")) {
+            Operand left = operand;
+            Operand right = parseBitAnd();
+            operand = (m, pc) -> left.get(m, pc) ^ right.get(m, pc);
+        }
+        return operand;
+    }
+
+    private Operand parseBitAnd() {
+        Operand operand = parseEquality();
+        while (accept("&")) {
+            Operand left = operand;
+            Operand right = parseEquality();
+            operand = (m, pc) -> left.get(m, pc) & right.get(m, pc);
+        }
+        return operand;
+    }
+
+    private Operand parseEquality() {
+        Operand operand = parseRelational();
+        while (true) {
+            Operand left = operand;
+            if (accept("==")) {
+                Operand right = parseRelational();
+                operand = (m, pc) -> left.get(m, pc) == right.get(m, pc) ? 1 : 0;
+            } else if (accept("!=")) {
+                Operand right = parseRelational();
+                operand = (m, pc) -> left.get(m, pc) != right.get(m, pc) ? 1 : 0;
+            } else {
+                return operand;
+            }
+        }
+    }
+
+    private Operand parseRelational() {
+        Operand operand = parseAdditive();
+        while (true) {
+            Operand left = operand;
+            if (accept("<")) {
+                Operand right = parseAdditive();
+                operand = (m, pc) -> left.get(m, pc) < right.get(m, pc) ? 1 : 0;
+            } else if (accept("<=")) {
+                Operand right = parseAdditive();
+                operand = (m, pc) -> left.get(m, pc) <= right.get(m, pc) ? 1 : 0;
+            } else if (accept(">")) {
+                Operand right = parseAdditive();
+                operand = (m, pc) -> left.get(m, pc) > right.get(m, pc) ? 1 : 0;
+            } else if (accept(">=")) {
+                Operand right = parseAdditive();
+                operand = (m, pc) -> left.get(m, pc) >= right.get(m, pc) ? 1 : 0;
+            } else {
+                return operand;
+            }
+        }
+    }
+
+    private Operand parseAdditive() {
+        Operand operand = parseUnary();
+        while (true) {
+            Operand left = operand;
+            if (accept("+")) {
+                Operand right = parseUnary();
+                operand = (m, pc) -> left.get(m, pc) + right.get(m, pc);
+            } else if (accept("-")) {
+                Operand right = parseUnary();
+                operand = (m, pc) -> left.get(m, pc) - right.get(m, pc);
+            } else {
+                return operand;
+            }
+        }
+    }
+
+    private Operand parseUnary() {
+        if (accept("!")) {
+            Operand operand = parseUnary();
+            return (m, pc) -> operand.get(m, pc) == 0 ? 1 : 0;
+        } else if (accept("~")) {
+            Operand operand = parseUnary();
+            return (m, pc) -> ~operand.get(m, pc);
+        } else if (accept("-")) {
+            Operand operand = parseUnary();
+            return (m, pc) -> -operand.get(m, pc);
+        }
+        return parsePrimary();
+    }
+
+    private Operand parsePrimary() {
+        if (position >= tokens.size()) {
+            throw error();
+        }
+
+        String token = tokens.get(position++);
+        if (token.equals("(")) {
+            Operand operand = parseOr();
+            expect(")");
+            return operand;
+        }
+
+        if (Character.isDigit(token.charAt(0))) {
+            int value = parseNumber(token);
+            return (m, pc) -> value;
+        }
+
+        String name = token.toUpperCase(Locale.ROOT);
+        switch (name) {
+            case "PC":
+                return (m, pc) -> pc;
+            case "DPTR":
+                return (m, pc) -> m.getInternalData().peek(0x83) << 8 | m.getInternalData().peek(0x82);
+            case "DATA":
+            case "IDATA": {
+                Operand address = parseIndex();
+                return (m, pc) -> m.getInternalData().peek(address.get(m, pc) & 0xff);
+            }
+            case "XDATA": {
+                Operand address = parseIndex();
+                return (m, pc) -> m.getExternalData().peek(address.get(m, pc) & 0xffff);
+            }
+            case "CODE": {
+                Operand address = parseIndex();
+                return (m, pc) -> m.getExternalCode().peek(address.get(m, pc) & 0xffff);
+            }
+            default:
+                break;
+        }
+
+        if (name.matches("R[0-7]")) {
+            int register = name.charAt(1) - '0';
+            return (m, pc) -> m.getInternalData().peek(m.getInternalData().getRegisterBase() | register);
+        }
+
+        Integer address = SFR_ADDRESSES.get(name);
+        if (address != null) {
+            int sfr = address;
+            if (accept(".")) {
+                return bit(sfr | parseBitPosition());
+            }
+            return (m, pc) -> m.getInternalData().peek(sfr);
+        }
+
+        Integer bitAddress = BIT_ADDRESSES.get(name);
+        if (bitAddress != null) {
+            return bit(bitAddress);
+        }
+
+        throw new IllegalArgumentException("Unknown name " + token);
+    }
+
+    // peeks at the byte the bit lives in so that evaluating a condition is no access of the program
+    private static Operand bit(int bitAddress) {
+        int byteAddress = bitAddress < 0x80 ? 0x20 + (bitAddress >> 3) : bitAddress & 0xf8;
+        int position = bitAddress & 0x07;
+        return (m, pc) -> m.getInternalData().peek(byteAddress) >> position & 1;
+    }
+
+    private Operand parseIndex() {
+        expect("[");
+        Operand address = parseOr();
+        expect("]");
+        return address;
+    }
+
+    private int parseBitPosition() {
+        if (position >= tokens.size()) {
+            throw error();
+        }
+
+        int bitPosition = parseNumber(tokens.get(position++));
+        if (bitPosition > 7) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+        return bitPosition;
+    }
+
+    private static int parseNumber(String token) {
+        String number = token.toUpperCase(Locale.ROOT);
+        try {
+            if (number.startsWith("0X")) {
+                return Integer.parseInt(number.substring(2), 16);
+            } else if (number.endsWith("H")) {
+                return Integer.parseInt(number.substring(0, number.length() - 1), 16);
+            }
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed number " + token);
+        }
+    }
+
+    private boolean accept(String token) {
+        if (position < tokens.size() && tokens.get(position).equals(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error();
+        }
+    }
+
+    private IllegalArgumentException error() {
+        return new IllegalArgumentException(position < tokens.size()
+                ? "Unexpected " + tokens.get(position) : "Unexpected end of condition");
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int index = 0;
+        while (index < expression.length()) {
+            char c = expression.charAt(index);
+            if (Character.isWhitespace(c)) {
+                index++;
+            } else if (Character.isLetterOrDigit(c) || c == '_') {
+                int start = index;
+                while (index < expression.length()
+                        && (Character.isLetterOrDigit(expression.charAt(index)) || expression.charAt(index) == '_')) {
+                    index++;
+                }
+                tokens.add(expression.substring(start, index));
+            } else {
+                String pair = expression.substring(index, Math.min(index + 2, expression.length()));
+                if (pair.equals("||") || pair.equals("&&") || pair.equals("==") || pair.equals("!=")
+                        || pair.equals("<=") || pair.equals(">=")) {
+                    tokens.add(pair);
+                    index += 2;
+                } else if ("()[].!~-+&|^<>".indexOf(c) >= 0) {
+                    tokens.add(String.valueOf(c));
+                    index++;
+                } else {
+                    throw new IllegalArgumentException("Unexpected " + c);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    @FunctionalInterface
+    private interface Operand {
+
+        int get(MemoryUnit memoryUnit, int pc);
+
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.opensim51.simulator.sys;
+
+public enum ExecutionMode {
+
+    // every instruction is interpreted, timers and interrupts are handled after each of them
+    INTERPRETED,
+
+    // hot basic blocks are translated into JVM classes, timers and interrupts are handled at block boundaries
+    TIERED
+
+}
@@ -0,0 +1,146 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.Memory;
+import com.opensim51.simulator.replay.InputLog;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+// a checkpoint costs the pages written after it, the oldest are dropped while the costs exceed the budget
+public class History {
+
+    // the page tables of the three memories of a checkpoint and the checkpoint itself, roughly
+    private static final long CHECKPOINT_COST = 8 * 1024;
+
+    private static final int PAGES_PER_MEMORY = 0x10000 / Memory.PAGE_SIZE;
+
+    private final long interval;
+    private final long budget;
+
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+    private long cost;
+
+    // the pages written since the newest checkpoint, those are the ones it keeps apart from the running machine
+    private final BitSet writtenPages = new BitSet(3 * PAGES_PER_MEMORY);
+
+    private InputLog inputs = new InputLog("", "");
+
+    public History(long interval, long budget) {
+        if (interval <= 0 || budget < 0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        this.interval = interval;
+        this.budget = budget;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    public long getCost() {
+        return cost;
+    }
+
+    public int getCheckpointCount() {
+        return checkpoints.size();
+    }
+
+    // the earliest cycle the processing unit can go back to, -1 without any checkpoint
+    public long getStartCycle() {
+        return checkpoints.isEmpty() ? -1 : checkpoints.get(0).cycle;
+    }
+
+    void add(Checkpoint checkpoint) {
+        checkpoints.add(checkpoint);
+        writtenPages.clear();
+        cost += checkpoint.cost;
+
+        // the newest checkpoint stays whatever the budget, otherwise there would be nothing to go back to
+        while (cost > budget && checkpoints.size() > 1) {
+            cost -= checkpoints.remove(0).cost;
+        }
+    }
+
+    void written(int space, int address) {
+        int page = space * PAGES_PER_MEMORY + address / Memory.PAGE_SIZE;
+        if (!writtenPages.get(page) && !checkpoints.isEmpty()) {
+            writtenPages.set(page);
+
+            Checkpoint newest = checkpoints.get(checkpoints.size() - 1);
+            newest.cost += Memory.PAGE_SIZE;
+            cost += Memory.PAGE_SIZE;
+            while (cost > budget && checkpoints.size() > 1) {
+                cost -= checkpoints.remove(0).cost;
+            }
+        }
+    }
+
+    void inputApplied(long cycle, int address, int value) {
+        inputs.add(cycle, address, value);
+    }
+
+    InputLog getInputs() {
+        return inputs;
+    }
+
+    Checkpoint getCheckpointBefore(long cycle, boolean inclusive) {
+        for (int index = checkpoints.size() - 1; index >= 0; index--) {
+            Checkpoint checkpoint = checkpoints.get(index);
+            if (checkpoint.cycle < cycle || inclusive && checkpoint.cycle == cycle) {
+                return checkpoint;
+            }
+        }
+        return null;
+    }
+
+    Checkpoint getOldest() {
+        return checkpoints.isEmpty() ? null : checkpoints.get(0);
+    }
+
+    // the pages of the checkpoint are shared with the running machine again
+    void truncate(Checkpoint checkpoint) {
+        while (checkpoints.get(checkpoints.size() - 1) != checkpoint) {
+            cost -= checkpoints.remove(checkpoints.size() - 1).cost;
+        }
+
+        cost -= checkpoint.cost - CHECKPOINT_COST;
+        checkpoint.cost = CHECKPOINT_COST;
+        writtenPages.clear();
+    }
+
+    void truncateInputs(long cycle) {
+        InputLog kept = new InputLog("", "");
+        for (int index = 0; index < inputs.size() && inputs.getCycle(index) < cycle; index++) {
+            kept.add(inputs.getCycle(index), inputs.getAddress(index), inputs.getValue(index));
+        }
+        inputs = kept;
+    }
+
+    void clear() {
+        checkpoints.clear();
+        writtenPages.clear();
+        cost = 0;
+        inputs = new InputLog("", "");
+    }
+
+    static final class Checkpoint {
+
+        final Snapshot snapshot;
+        final long cycle;
+
+        private long cost = CHECKPOINT_COST;
+
+        Checkpoint(Snapshot snapshot) {
+            this.snapshot = snapshot;
+            this.cycle = snapshot.getCycle();
+        }
+
+    }
+
+}
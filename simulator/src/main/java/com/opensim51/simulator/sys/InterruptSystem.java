@@ -2,7 +2,7 @@ package com.opensim51.simulator.sys;
 
 import com.opensim51.simulator.memory.InternalData;
 import com.opensim51.simulator.memory.InternalData.Bit;
-import com.opensim51.simulator.memory.datatype.UInt16;
+import com.opensim51.simulator.memory.WriteListener;
 
 public class InterruptSystem {
 
@@ -13,86 +13,128 @@ public class InterruptSystem {
     private boolean previousInt0;
     private boolean previousInt1;
     private int interrupLevel = -1;
+    private boolean isrNested;
+
+    // bit n is set while source n is flagged and enabled, zero as long as EA is clear
+    private int pending;
+    private int highPriority;
 
     public InterruptSystem(InternalData internalData) {
         this.internalData = internalData;
         this.bitField = internalData.bitField;
+        this.previousInt0 = internalData.P3.getBitValue(2);
+        this.previousInt1 = internalData.P3.getBitValue(3);
+
+        WriteListener pinListener = (address, value) -> pollExternalInterrupts();
+        internalData.addWriteListener(internalData.P3.getAddress(), pinListener);
+        internalData.addWriteListener(internalData.TCON.getAddress(), pinListener);
+
+        WriteListener maskListener = (address, value) -> updatePending();
+        internalData.addWriteListener(internalData.TCON.getAddress(), maskListener);
+        internalData.addWriteListener(internalData.SCON.getAddress(), maskListener);
+        internalData.addWriteListener(internalData.IE.getAddress(), maskListener);
+        internalData.addWriteListener(internalData.IP.getAddress(), maskListener);
+        updatePending();
     }
 
-    public UInt16 getInterruptServiceRoutine(UInt16 pc) {
-        if (isAllEnabled() && interrupLevel != 1) {
-            for (int interruptSource = 0; interruptSource <= 4; interruptSource++) {
-                if (isEnabled(interruptSource) && isHighPriority(interruptSource) && isFlagSet(interruptSource)) {
-
-                    // TODO: fix
-//                    if (memory.getInterruptLevel() == 0) {
-//                        memory.setIsrNested(true);
-//                    }
-
-                    interrupLevel = 1;
-                    clearFlag(interruptSource);
-                    internalData.stack.push(pc);
-                    return getVector(interruptSource);
-                }
-            }
+    public int getInterruptServiceRoutine(int pc) {
+        if (pending == 0 || interrupLevel == 1) {
+            return pc;
+        }
 
-            if (interrupLevel == 0) {
-                return pc;
-            } else {
-                for (int interruptSource = 0; interruptSource <= 4; interruptSource++) {
-                    if (isEnabled(interruptSource) && isFlagSet(interruptSource)) {
-                        interrupLevel = 0;
-                        clearFlag(interruptSource);
-                        internalData.stack.push(pc);
-                        return getVector(interruptSource);
-                    }
-                }
-
-                return pc;
-            }
+        int interruptSource;
+        int highPriorityPending = pending & highPriority;
+        if (highPriorityPending != 0) {
+
+            // a high priority interrupt preempts the low priority service routine in progress
+            isrNested = interrupLevel == 0;
+
+            interrupLevel = 1;
+            interruptSource = Integer.numberOfTrailingZeros(highPriorityPending);
+        } else if (interrupLevel == -1) {
+            interrupLevel = 0;
+            interruptSource = Integer.numberOfTrailingZeros(pending);
         } else {
             return pc;
         }
+
+        clearFlag(interruptSource);
+        internalData.stack.pushWord(pc);
+        return getVector(interruptSource);
     }
 
-    public void pollInterrupt0() {
-        previousInt0 = pollInterrupt(previousInt0, bitField.IT0, internalData.P3.getBit(2));
+    void copyState(InterruptSystem source) {
+        interrupLevel = source.interrupLevel;
+        isrNested = source.isrNested;
+        previousInt0 = source.previousInt0;
+        previousInt1 = source.previousInt1;
     }
 
-    public void pollInterrupt1() {
-        previousInt1 = pollInterrupt(previousInt1, bitField.IT1, internalData.P3.getBit(3));
+    // the routines in progress and the last pin levels packed into an int, the rest follows from the registers
+    int getState() {
+        return interrupLevel + 1 | (isrNested ? 4 : 0) | (previousInt0 ? 8 : 0) | (previousInt1 ? 16 : 0);
     }
 
-    private boolean pollInterrupt(boolean previousInt, Bit it, Bit p3_x) {
-        boolean edgeTriggered = it.getValue();
-        if (edgeTriggered) {
-            if (previousInt && !p3_x.getValue()) {
-                it.setBit();
-            }
-        } else if (!p3_x.getValue()) {
-            it.setBit();
+    void setState(int state) {
+        interrupLevel = (state & 3) - 1;
+        isrNested = (state & 4) != 0;
+        previousInt0 = (state & 8) != 0;
+        previousInt1 = (state & 16) != 0;
+    }
+
+    // no routine is in progress after a reset, the pins are taken as they are now
+    void reset() {
+        interrupLevel = -1;
+        isrNested = false;
+        previousInt0 = internalData.P3.getBitValue(2);
+        previousInt1 = internalData.P3.getBitValue(3);
+    }
+
+    public void returnFromInterrupt() {
+        if (interrupLevel == 1 && isrNested) {
+            interrupLevel = 0;
+            isrNested = false;
+        } else {
+            interrupLevel = -1;
         }
+    }
 
-        return !p3_x.getValue();
+    // an edge triggered flag is set by a falling edge on its pin, a level triggered one follows the pin
+    private void pollExternalInterrupts() {
+        boolean int0 = internalData.P3.getBitValue(2);
+        boolean int1 = internalData.P3.getBitValue(3);
+
+        boolean int0Falling = previousInt0 && !int0;
+        boolean int1Falling = previousInt1 && !int1;
+        previousInt0 = int0;
+        previousInt1 = int1;
+
+        pollExternalInterrupt(bitField.IT0, bitField.IE0, int0, int0Falling);
+        pollExternalInterrupt(bitField.IT1, bitField.IE1, int1, int1Falling);
     }
 
-    private boolean isFlagSet(int interruptSource) {
-        switch (interruptSource) {
-            case 0:
-                return bitField.IE0.getValue();
-            case 1:
-                return bitField.TF0.getValue();
-            case 2:
-                return bitField.IE1.getValue();
-            case 3:
-                return bitField.TF1.getValue();
-            case 4:
-                return bitField.TI.getValue() || bitField.RI.getValue();
-
-            // it will never happen
-            default:
-                return false;
+    private void pollExternalInterrupt(Bit it, Bit ie, boolean pin, boolean falling) {
+        if (it.getValue()) {
+            if (falling) {
+                ie.setBit();
+            }
+        } else if (ie.getValue() == pin) {
+            ie.setValue(!pin);
+        }
+    }
+
+    private void updatePending() {
+        int tcon = internalData.TCON.read();
+        int ie = internalData.IE.read();
+
+        // IE0, TF0, IE1 and TF1 sit at TCON bits 1, 5, 3 and 7, the serial port requests with TI or RI
+        int flags = (tcon >> 1) & 0x05 | (tcon >> 4) & 0x0a;
+        if ((internalData.SCON.read() & 0x03) != 0) {
+            flags |= 0x10;
         }
+
+        pending = (ie & 0x80) == 0 ? 0 : flags & ie & 0x1f;
+        highPriority = internalData.IP.read() & 0x1f;
     }
 
     private void clearFlag(int interruptSource) {
@@ -107,20 +149,8 @@ public class InterruptSystem {
         }
     }
 
-    private boolean isHighPriority(int interruptSource) {
-        return internalData.IP.getBitValue(interruptSource);
-    }
-
-    private boolean isEnabled(int interruptSource) {
-        return internalData.IE.getBitValue(interruptSource);
-    }
-
-    private boolean isAllEnabled() {
-        return bitField.EA.getValue();
-    }
-
-    private UInt16 getVector(int interruptSource) {
-        return UInt16.valueOf(VECTOR[interruptSource + 1]);
+    private int getVector(int interruptSource) {
+        return VECTOR[interruptSource + 1];
     }
 
 }
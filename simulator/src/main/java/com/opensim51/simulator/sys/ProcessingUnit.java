@@ -1,59 +1,924 @@
 package com.opensim51.simulator.sys;
 
 import com.opensim51.simulator.ExecutionListener;
-import com.opensim51.simulator.instruction.Instruction;
+import com.opensim51.simulator.instruction.BasicBlock;
+import com.opensim51.simulator.instruction.BasicBlockCache;
+import com.opensim51.simulator.instruction.DispatchMode;
 import com.opensim51.simulator.instruction.InstructionFactory;
+import com.opensim51.simulator.jit.BlockCompiler;
+import com.opensim51.simulator.jit.CompiledBlock;
+import com.opensim51.simulator.jit.TranslationCache;
+import com.opensim51.simulator.memory.ExternalCode;
+import com.opensim51.simulator.memory.ExternalData;
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.Memory;
 import com.opensim51.simulator.memory.MemoryUnit;
 import com.opensim51.simulator.memory.datatype.UInt16;
-import com.opensim51.simulator.memory.datatype.UInt8;
+import com.opensim51.simulator.replay.InputLog;
+import com.opensim51.simulator.trace.TraceFormat;
+import com.opensim51.simulator.trace.TraceRing;
+import com.opensim51.simulator.trace.TraceWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ProcessingUnit {
 
+    private static final int RETI = 0x32;
+
+    private static final int ACC = 0xe0;
+    private static final int PSW = 0xd0;
+    private static final int SP = 0x81;
+
+    // the number of entries after which a block is handed to the translator
+    private static final int COMPILE_THRESHOLD = 64;
+
     private final MemoryUnit memoryUnit;
 
+    // held while the program runs or its state is changed or copied, by one thread at a time
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Scheduler scheduler;
     private final Timer0 timer0;
     private final InterruptSystem interruptSystem;
 
-    private UInt16 programCounter = UInt16.ZERO;
+    private int programCounter;
+
+    private Clock clock = new Clock(12_000_000, 12);
+
+    private DispatchMode dispatchMode = DispatchMode.SPECIALIZED;
+    private ExecutionMode executionMode = ExecutionMode.INTERPRETED;
+    private BlockCompiler blockCompiler = BlockCompiler.getDefault();
+
+    private TranslationCache translationCache;
+    private String imageHash;
+
+    private long hashedModifications = -1;
+    private final BasicBlockCache blockCache;
+
+    // the block being executed and the position of the next instruction in it
+    private BasicBlock block;
+    private int blockIndex;
+
+    // a cancel while no slice runs names one that has ended
+    private volatile long slices;
+    private volatile long cancelledSlice;
+
+    private final Breakpoints breakpoints = new Breakpoints();
+
+    // the first watched access of the running slice and the thread running it
+    private WatchpointHit watchpointHit;
+    private volatile Thread runner;
+
+    private ExecutionListener tracer;
+
+    private TraceRing traceRing;
+
+    // translations are not run while set so that no instruction is left out
+    private TraceWriter traceWriter;
+
+    private final Queue<Integer> queuedInputs = new ConcurrentLinkedQueue<>();
+    private volatile boolean inputsQueued;
+
+    private InputLog recordedInputs;
+    private InputLog replayedInputs;
+    private int replayIndex;
+    private long nextInputCycle = Long.MAX_VALUE;
+
+    private History history;
+    private long nextCheckpointCycle = Long.MAX_VALUE;
+
+    // the earliest of the cycles above, so that executing an instruction checks no more
+    private long nextHookCycle = Long.MAX_VALUE;
+
+    // set while going back, the states passed then are already in the history and in the traces
+    private boolean rewinding;
 
     public ProcessingUnit(MemoryUnit memoryUnit) {
+        this(memoryUnit, new Scheduler());
+    }
+
+    private ProcessingUnit(MemoryUnit memoryUnit, Scheduler scheduler) {
         this.memoryUnit = memoryUnit;
+        this.scheduler = scheduler;
+        this.blockCache = new BasicBlockCache(memoryUnit.getExternalCode(),
+                InstructionFactory.getInstructions(dispatchMode));
+
+        InternalData internalData = memoryUnit.getInternalData();
+        this.timer0 = new Timer0(internalData, scheduler, lock);
+        this.interruptSystem = new InterruptSystem(internalData);
+        internalData.markListeners();
+
+        watch(internalData);
+        watch(memoryUnit.getExternalData());
+        watch(memoryUnit.getExternalCode());
+    }
+
+    private void watch(Memory memory) {
+        memory.setWatchListener((address, value, write) -> watched(memory, address, value, write));
+    }
+
+    public ProcessingUnit fork() {
+        lock.lock();
+        try {
+
+            // the forked memory has to see TH0 and TL0 as of now
+            timer0.synchronize();
 
-        this.timer0 = new Timer0(memoryUnit.getInternalData());
-        this.interruptSystem = new InterruptSystem(memoryUnit.getInternalData());
+            ProcessingUnit fork = new ProcessingUnit(memoryUnit.fork(), new Scheduler(scheduler.getCycle()));
+            fork.programCounter = programCounter;
+            fork.clock = clock;
+            fork.setDispatchMode(dispatchMode);
+            fork.executionMode = executionMode;
+            fork.blockCompiler = blockCompiler;
+            fork.translationCache = translationCache;
+            fork.interruptSystem.copyState(interruptSystem);
+
+            if (executionMode == ExecutionMode.TIERED) {
+                Map<Integer, CompiledBlock> compiledBlocks = new HashMap<>();
+                for (BasicBlock cached : blockCache.getBlocks()) {
+                    if (cached.getCompiledBlock() != null) {
+                        compiledBlocks.put(cached.getStartAddress(), cached.getCompiledBlock());
+                    }
+                }
+                fork.blockCache.setPrecompiled(compiledBlocks);
+            }
+
+            return fork;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void reset() {
+        lock.lock();
+        try {
+
+            // the timer is brought in line with the cleared registers by their writes
+            scheduler.reset();
+            memoryUnit.reset();
+            interruptSystem.reset();
+
+            programCounter = 0;
+            block = null;
+            hashedModifications = -1;
+            blockCache.setPrecompiled(new HashMap<>());
+
+            queuedInputs.clear();
+            inputsQueued = false;
+            recordedInputs = null;
+            replayedInputs = null;
+            nextInputCycle = Long.MAX_VALUE;
+
+            if (history != null) {
+                history.clear();
+                nextCheckpointCycle = 0;
+            }
+            updateHookCycle();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // forgets what the users attached, a trace writer is left for its owner to close
+    public void clearSession() {
+        breakpoints.clearAll();
+        memoryUnit.getInternalData().clearWatchpoints();
+        memoryUnit.getExternalData().clearWatchpoints();
+        memoryUnit.getExternalCode().clearWatchpoints();
+        memoryUnit.getInternalData().removeAddedListeners();
+
+        tracer = null;
+        traceRing = null;
+        traceWriter = null;
+        setHistory(null);
+
+        recordedInputs = null;
+        replayFrom(null, 0);
+    }
+
+    public MemoryUnit getMemoryUnit() {
+        return memoryUnit;
     }
 
     public UInt16 getProgramCounter() {
-        return programCounter;
+        return UInt16.valueOf(programCounter);
     }
 
     public void setProgramCounter(UInt16 programCounter) {
-        this.programCounter = programCounter;
+        this.programCounter = programCounter.toInt();
     }
 
-    public void step(ExecutionListener executionListener) {
-        UInt8 opcode = memoryUnit.getExternalCode().getCellValue(programCounter);
-        Instruction instruction = InstructionFactory.getByOpcode(opcode);
+    public int getPc() {
+        return programCounter;
+    }
+
+    public void setPc(int programCounter) {
+        this.programCounter = programCounter & 0xffff;
+    }
+
+    public long getCycles() {
+        return scheduler.getCycle();
+    }
+
+    public long getElapsedNanos() {
+        return clock.toNanos(scheduler.getCycle());
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    public DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    public void setDispatchMode(DispatchMode dispatchMode) {
+        this.dispatchMode = dispatchMode;
+        blockCache.setInstructions(InstructionFactory.getInstructions(dispatchMode));
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public void setBlockCompiler(BlockCompiler blockCompiler) {
+        this.blockCompiler = blockCompiler;
+    }
+
+    public void setTranslationCache(TranslationCache translationCache) {
+        this.translationCache = translationCache;
+        this.hashedModifications = -1;
+    }
+
+    public Breakpoints getBreakpoints() {
+        return breakpoints;
+    }
+
+    public void setTracer(ExecutionListener tracer) {
+        this.tracer = tracer;
+    }
+
+    public TraceRing getTraceRing() {
+        return traceRing;
+    }
+
+    public void setTraceRing(TraceRing traceRing) {
+        this.traceRing = traceRing;
+    }
+
+    public TraceWriter getTraceWriter() {
+        return traceWriter;
+    }
+
+    public void setTraceWriter(TraceWriter traceWriter) {
+        this.traceWriter = traceWriter;
+        traceWrites();
+    }
+
+    private void traceWrites() {
+        traceWrites(memoryUnit.getInternalData(), TraceFormat.INTERNAL_DATA);
+        traceWrites(memoryUnit.getExternalData(), TraceFormat.EXTERNAL_DATA);
+        traceWrites(memoryUnit.getExternalCode(), TraceFormat.EXTERNAL_CODE);
+    }
+
+    private void traceWrites(Memory memory, int space) {
+        memory.setWriteTracer(traceWriter == null && history == null ? null
+                : (address, value) -> written(space, address, value));
+    }
+
+    private void written(int space, int address, int value) {
+        if (traceWriter != null && !rewinding) {
+            traceWriter.written(space, address, value);
+        }
+        if (history != null) {
+            history.written(space, address);
+        }
+    }
+
+    // drives the pins of a port from outside the chip, from any thread
+    public void setInput(int address, int value) {
+        if (address != 0x80 && address != 0x90 && address != 0xa0 && address != 0xb0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
 
-        for (int cycles = 0; cycles < instruction.getCycles(); cycles++) {
-            if (timer0.isRunning()) {
-                timer0.step();
+        queuedInputs.add(address << 8 | value & 0xff);
+        inputsQueued = true;
+        applyQueuedInputs();
+    }
+
+    // applied only by the thread holding the lock, the others leave the inputs queued for it
+    private void applyQueuedInputs() {
+        if (!lock.tryLock()) {
+            return;
+        }
+
+        try {
+            inputsQueued = false;
+
+            Integer input;
+            while ((input = queuedInputs.poll()) != null) {
+                applyInput(input >>> 8, input & 0xff);
             }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void applyInput(int address, int value) {
+        memoryUnit.getInternalData().write(address, value);
+        if (rewinding) {
+            return;
+        }
 
-            interruptSystem.pollInterrupt0();
-            interruptSystem.pollInterrupt1();
+        if (recordedInputs != null) {
+            recordedInputs.add(scheduler.getCycle(), address, value);
         }
+        if (history != null) {
+            history.inputApplied(scheduler.getCycle(), address, value);
+        }
+    }
+
+    public InputLog startRecording() {
+        recordedInputs = new InputLog(getCodeHash(), getStateHash());
+        return recordedInputs;
+    }
+
+    public void stopRecording() {
+        recordedInputs = null;
+    }
+
+    // a null log stops replaying
+    public void replay(InputLog inputLog) {
+        if (inputLog != null && (!inputLog.getCodeHash().equals(getCodeHash())
+                || !inputLog.getStateHash().equals(getStateHash()))) {
+            throw new IllegalStateException("The input log was recorded from another code or state");
+        }
+
+        replayFrom(inputLog, 0);
+    }
+
+    private void replayFrom(InputLog inputLog, int index) {
+        replayedInputs = inputLog;
+        replayIndex = index;
+        nextInputCycle = inputLog == null || index == inputLog.size() ? Long.MAX_VALUE : inputLog.getCycle(index);
+        updateHookCycle();
+    }
+
+    private static int indexOf(InputLog inputLog, long cycle) {
+        int index = 0;
+        while (inputLog != null && index < inputLog.size() && inputLog.getCycle(index) < cycle) {
+            index++;
+        }
+        return index;
+    }
+
+    private void replayInputs() {
+        long cycle = scheduler.getCycle();
+        while (replayIndex < replayedInputs.size() && replayedInputs.getCycle(replayIndex) <= cycle) {
+            applyInput(replayedInputs.getAddress(replayIndex), replayedInputs.getValue(replayIndex));
+            replayIndex++;
+        }
+
+        nextInputCycle = replayIndex < replayedInputs.size() ? replayedInputs.getCycle(replayIndex) : Long.MAX_VALUE;
+    }
+
+    public void setHistory(History history) {
+        if (this.history != null) {
+            this.history.clear();
+        }
+
+        this.history = history;
+        nextCheckpointCycle = history == null ? Long.MAX_VALUE : scheduler.getCycle();
+        updateHookCycle();
+        traceWrites();
+    }
+
+    public History getHistory() {
+        return history;
+    }
+
+    // goes back to the state before the last instruction, only while no slice is running
+    public RunStatus stepBack() {
+        lock.lock();
+        try {
+            long cycle = scheduler.getCycle();
+            History.Checkpoint checkpoint = history == null ? null : history.getCheckpointBefore(cycle, false);
+            if (checkpoint == null) {
+                return new RunStatus(programCounter, cycle, StopReason.HISTORY_START);
+            }
+
+            InputLog replayed = replayedInputs;
+            rewinding = true;
+            try {
+                rewind(checkpoint, runForward(checkpoint, cycle, false));
+            } finally {
+                rewinding = false;
+                replayFrom(replayed, indexOf(replayed, scheduler.getCycle() + 1));
+            }
+            return new RunStatus(programCounter, scheduler.getCycle(), StopReason.SLICE_ENDED);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // goes back to the last state at a breakpoint, or to the oldest state kept
+    public RunStatus reverseContinue() {
+        lock.lock();
+        try {
+            History.Checkpoint oldest = history == null ? null : history.getOldest();
+            if (oldest == null) {
+                return new RunStatus(programCounter, scheduler.getCycle(), StopReason.HISTORY_START);
+            }
+
+            InputLog replayed = replayedInputs;
+            rewinding = true;
+            try {
+
+                // the intervals between the checkpoints are searched from the newest to the oldest
+                long end = scheduler.getCycle();
+                History.Checkpoint checkpoint;
+                while ((checkpoint = history.getCheckpointBefore(end, false)) != null) {
+                    long hit = runForward(checkpoint, end, true);
+                    if (hit >= 0) {
+                        rewind(checkpoint, hit);
+                        return new RunStatus(programCounter, scheduler.getCycle(), StopReason.BREAKPOINT);
+                    }
+                    end = checkpoint.cycle;
+                }
 
-        programCounter = instruction.execute(programCounter, memoryUnit);
+                rewind(oldest, oldest.cycle);
+                return new RunStatus(programCounter, scheduler.getCycle(), StopReason.HISTORY_START);
+            } finally {
+                rewinding = false;
+                replayFrom(replayed, indexOf(replayed, scheduler.getCycle() + 1));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the last instruction boundary before the end, or the last one with a breakpoint, -1 if none
+    private long runForward(History.Checkpoint checkpoint, long end, boolean breakpointsOnly) {
+        restore(checkpoint);
+
+        long found = -1;
+        while (scheduler.getCycle() < end) {
+            if (!breakpointsOnly || breakpoints.isHit(programCounter, memoryUnit, timer0)) {
+                found = scheduler.getCycle();
+            }
+            execute();
+        }
+        return found;
+    }
+
+    // the input changes at the cycle are applied as they were before the instruction there ran
+    private void rewind(History.Checkpoint checkpoint, long cycle) {
+        history.truncate(checkpoint);
+        restore(checkpoint);
+        while (scheduler.getCycle() < cycle) {
+            execute();
+        }
+        if (scheduler.getCycle() >= nextInputCycle) {
+            replayInputs();
+        }
+        history.truncateInputs(cycle + 1);
+    }
+
+    // the input changes after the checkpoint are applied again as the program runs forward from it
+    private void restore(History.Checkpoint checkpoint) {
+        load(checkpoint.snapshot);
+        nextCheckpointCycle = checkpoint.cycle + history.getInterval();
+        replayFrom(history.getInputs(), indexOf(history.getInputs(), checkpoint.cycle + 1));
+    }
+
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+
+            // the snapshot has to see TH0 and TL0 as of now
+            timer0.synchronize();
+            return new Snapshot(scheduler.getCycle(), programCounter, interruptSystem.getState(), memoryUnit.fork());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the settings, breakpoints and watchpoints are kept, the history starts anew
+    public void restore(Snapshot snapshot) {
+        lock.lock();
+        try {
+            load(snapshot);
+
+            if (history != null) {
+                history.clear();
+                nextCheckpointCycle = scheduler.getCycle();
+            }
+            replayFrom(replayedInputs, indexOf(replayedInputs, scheduler.getCycle()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void load(Snapshot snapshot) {
+        MemoryUnit source = snapshot.getMemoryUnit();
+
+        // the routines in progress are restored before the pins so that those show no edges
+        scheduler.reset(snapshot.getCycle());
+        interruptSystem.setState(snapshot.getInterruptState());
+        timer0.reset(() -> {
+            memoryUnit.getInternalData().forkFrom(source.getInternalData());
+            memoryUnit.getExternalData().forkFrom(source.getExternalData());
+
+            // the code rarely differs, restoring it would drop every decoded block
+            if (!memoryUnit.getExternalCode().sharesPagesWith(source.getExternalCode())) {
+                memoryUnit.getExternalCode().forkFrom(source.getExternalCode());
+            }
+        });
+
+        programCounter = snapshot.getPc();
+        block = null;
+    }
+
+    private void checkpoint() {
+        long cycle = scheduler.getCycle();
+        if (!rewinding) {
+            history.add(new History.Checkpoint(snapshot()));
+        }
+        nextCheckpointCycle = cycle + history.getInterval();
+    }
+
+    private void runHooks() {
+        if (scheduler.getCycle() >= nextInputCycle) {
+            replayInputs();
+        }
+        if (scheduler.getCycle() >= nextCheckpointCycle) {
+            checkpoint();
+        }
+        updateHookCycle();
+    }
+
+    private void updateHookCycle() {
+        nextHookCycle = Math.min(nextInputCycle, nextCheckpointCycle);
+    }
+
+    public String getCodeHash() {
+        ExternalCode code = memoryUnit.getExternalCode();
+        byte[] image = new byte[code.getSize()];
+        code.peek(0, image, 0, image.length);
+        return TranslationCache.hash(image);
+    }
+
+    public String getStateHash() {
+        lock.lock();
+        try {
+
+            // the hash has to see TH0 and TL0 as of now
+            timer0.synchronize();
+            InternalData internalData = memoryUnit.getInternalData();
+            ExternalData externalData = memoryUnit.getExternalData();
+
+            ByteBuffer state = ByteBuffer.allocate(10 + internalData.getSize() + externalData.getSize());
+            state.putShort((short) programCounter);
+            state.putLong(scheduler.getCycle());
+            for (int address = 0; address < internalData.getSize(); address++) {
+                state.put((byte) internalData.peek(address));
+            }
+            externalData.peek(0, state.array(), state.position(), externalData.getSize());
+            return TranslationCache.hash(state.array());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // makes the running slice stop before its next instruction, from any thread
+    public void cancel() {
+        cancelledSlice = slices;
+    }
+
+    // the last instruction may go past the cycles and a translated block past both
+    public RunStatus runSlice(long instructions, long cycles) {
+        if (instructions < 0 || cycles < 0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        RunStatus runStatus;
+        lock.lock();
+        try {
+            runStatus = runLocked(instructions, cycles);
+        } finally {
+            runner = null;
+            lock.unlock();
+        }
+
+        // an input queued after the last instruction of the slice
+        if (inputsQueued) {
+            applyQueuedInputs();
+        }
+        return runStatus;
+    }
+
+    private RunStatus runLocked(long instructions, long cycles) {
+        slices++;
+        if (inputsQueued) {
+            applyQueuedInputs();
+        }
+
+        // the first instruction is executed even if it has a breakpoint, that is how a stopped program resumes
+        long cycle = scheduler.getCycle();
+        long cycleLimit = cycles > Long.MAX_VALUE - cycle ? Long.MAX_VALUE : cycle + cycles;
+        StopReason stopReason = null;
+        watchpointHit = null;
+        runner = Thread.currentThread();
+
+        if (executionMode == ExecutionMode.TIERED && dispatchMode == DispatchMode.SPECIALIZED
+                && blockCompiler.isAvailable()) {
+            loadTranslations();
+            stopReason = runTieredSlice(instructions, cycleLimit);
+        } else if (tracer == null) {
+            for (long executed = 0; executed < instructions && scheduler.getCycle() < cycleLimit; executed++) {
+                execute();
+                if ((stopReason = getStopReason()) != null) {
+                    break;
+                }
+            }
+        } else {
+            for (long executed = 0; executed < instructions && scheduler.getCycle() < cycleLimit; executed++) {
+                execute();
+                tracer.process(UInt16.valueOf(programCounter));
+                if ((stopReason = getStopReason()) != null) {
+                    break;
+                }
+            }
+        }
+
+        return new RunStatus(programCounter, scheduler.getCycle(),
+                stopReason == null ? StopReason.SLICE_ENDED : stopReason);
+    }
+
+    public WatchpointHit getWatchpointHit() {
+        return watchpointHit;
+    }
+
+    private StopReason getStopReason() {
+        if (cancelledSlice == slices) {
+            return StopReason.CANCELLED;
+        }
+        if (watchpointHit != null) {
+            return StopReason.WATCHPOINT;
+        }
+        return breakpoints.isHit(programCounter, memoryUnit, timer0) ? StopReason.BREAKPOINT : null;
+    }
+
+    // accesses by other threads are no accesses of the program
+    private void watched(Memory memory, int address, int value, boolean write) {
+        if (runner == Thread.currentThread() && watchpointHit == null) {
+            watchpointHit = new WatchpointHit(memory, address, value, write);
+        }
+    }
+
+    public void step(ExecutionListener executionListener) {
+        lock.lock();
+        try {
+            if (inputsQueued) {
+                applyQueuedInputs();
+            }
+            execute();
+        } finally {
+            lock.unlock();
+        }
+
+        if (inputsQueued) {
+            applyQueuedInputs();
+        }
+        executionListener.process(UInt16.valueOf(programCounter));
+    }
+
+    private void execute() {
+        if (scheduler.getCycle() >= nextHookCycle) {
+            runHooks();
+        }
+
+        // continue with the current block unless a jump, an interrupt or a code write left it
+        if (block == null || !block.isValid() || blockIndex >= block.getLength()
+                || block.getAddress(blockIndex) != programCounter) {
+            block = blockCache.get(programCounter);
+            blockIndex = 0;
+
+            if (block.getLength() == 0) {
+                throw new IllegalStateException("Reserved opcode");
+            }
+        }
+
+        int opcode = block.getOpcode(blockIndex);
+        int address = programCounter;
+        elapse(block.getInstruction(blockIndex).getCycles());
+
+        programCounter = block.execute(blockIndex++, memoryUnit);
+        if (opcode == RETI) {
+            interruptSystem.returnFromInterrupt();
+        }
+        if (traceRing != null && !rewinding) {
+            trace(address, opcode);
+        }
         programCounter = interruptSystem.getInterruptServiceRoutine(programCounter);
 
-        executionListener.process(programCounter);
+        // the return address an interrupt pushed belongs to the instruction it followed
+        if (traceWriter != null && !rewinding) {
+            traceWriter.executed(address, scheduler.getCycle());
+        }
     }
 
     public void run(ExecutionListener executionListener) {
+        lock.lock();
+        try {
+            if (executionMode == ExecutionMode.TIERED && dispatchMode == DispatchMode.SPECIALIZED
+                    && blockCompiler.isAvailable()) {
+                loadTranslations();
+                runTiered(executionListener);
+                try {
+                    saveTranslations();
+                } catch (IOException e) {
+                    // the blocks are translated again on the next run
+                }
+            } else {
+                while (executionListener.isRunning()) {
+                    step(executionListener);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (inputsQueued) {
+            applyQueuedInputs();
+        }
+    }
+
+    private void runTiered(ExecutionListener executionListener) {
         while (executionListener.isRunning()) {
-            step(executionListener);
+            if (inputsQueued) {
+                applyQueuedInputs();
+            }
+            if (scheduler.getCycle() >= nextHookCycle) {
+                runHooks();
+            }
+
+            BasicBlock entered = blockCache.get(programCounter);
+            CompiledBlock compiledBlock = entered.getCompiledBlock();
+
+            if (compiledBlock != null && traceWriter == null && !mayReplayWithin(entered)) {
+                executeCompiled(entered, compiledBlock);
+                executionListener.process(UInt16.valueOf(programCounter));
+            } else {
+                if (entered.enter() == COMPILE_THRESHOLD) {
+                    blockCompiler.submit(entered);
+                }
+
+                // interpret the block until it is left by its last instruction, an interrupt or a cancellation
+                block = entered;
+                blockIndex = 0;
+                do {
+                    step(executionListener);
+                } while (executionListener.isRunning() && block == entered && blockIndex < entered.getLength()
+                        && entered.getAddress(blockIndex) == programCounter);
+            }
+        }
+    }
+
+    private StopReason runTieredSlice(long instructions, long cycleLimit) {
+        long executed = 0;
+        while (executed < instructions && scheduler.getCycle() < cycleLimit) {
+            if (scheduler.getCycle() >= nextHookCycle) {
+                runHooks();
+            }
+
+            BasicBlock entered = blockCache.get(programCounter);
+            CompiledBlock compiledBlock = entered.getCompiledBlock();
+
+            // a translation would run past a breakpoint or a watched access inside its block
+            if (compiledBlock != null && !breakpoints.mayStopWithin(programCounter, entered.getSize())
+                    && !isWatched() && traceWriter == null && !mayReplayWithin(entered)) {
+                executeCompiled(entered, compiledBlock);
+                executed += entered.getLength();
+                if (tracer != null) {
+                    tracer.process(UInt16.valueOf(programCounter));
+                }
+
+                StopReason stopReason = getStopReason();
+                if (stopReason != null) {
+                    return stopReason;
+                }
+            } else {
+                if (compiledBlock == null && entered.enter() == COMPILE_THRESHOLD) {
+                    blockCompiler.submit(entered);
+                }
+
+                block = entered;
+                blockIndex = 0;
+                do {
+                    execute();
+                    executed++;
+                    if (tracer != null) {
+                        tracer.process(UInt16.valueOf(programCounter));
+                    }
+
+                    StopReason stopReason = getStopReason();
+                    if (stopReason != null) {
+                        return stopReason;
+                    }
+                } while (executed < instructions && scheduler.getCycle() < cycleLimit && block == entered
+                        && blockIndex < entered.getLength() && entered.getAddress(blockIndex) == programCounter);
+            }
+        }
+        return null;
+    }
+
+    // a replayed change has to be applied between the same two instructions it was recorded between
+    private boolean mayReplayWithin(BasicBlock entered) {
+        return nextInputCycle < scheduler.getCycle() + entered.getCycles();
+    }
+
+    private boolean isWatched() {
+        return memoryUnit.getInternalData().hasWatchpoints() || memoryUnit.getExternalData().hasWatchpoints()
+                || memoryUnit.getExternalCode().hasWatchpoints();
+    }
+
+    private void loadTranslations() {
+        if (translationCache == null || hashedModifications == blockCache.getModifications()) {
+            return;
         }
+
+        ExternalCode code = memoryUnit.getExternalCode();
+        byte[] image = new byte[code.getSize()];
+        code.peek(0, image, 0, image.length);
+
+        imageHash = TranslationCache.hash(image);
+        hashedModifications = blockCache.getModifications();
+        blockCache.setPrecompiled(BlockCompiler.define(translationCache.load(imageHash)));
+    }
+
+    public void saveTranslations() throws IOException {
+
+        // translations of code that changed while running belong to no known image
+        if (translationCache == null || hashedModifications != blockCache.getModifications()) {
+            return;
+        }
+
+        Map<Integer, byte[]> classFiles = new HashMap<>();
+        for (BasicBlock cached : blockCache.getBlocks()) {
+            CompiledBlock compiledBlock = cached.getCompiledBlock();
+            byte[] classFile = compiledBlock == null ? null : BlockCompiler.getClassFile(compiledBlock);
+            if (classFile != null) {
+                classFiles.put(cached.getStartAddress(), classFile);
+            }
+        }
+
+        if (!classFiles.isEmpty()) {
+            translationCache.store(imageHash, classFiles);
+        }
+    }
+
+    private void executeCompiled(BasicBlock entered, CompiledBlock compiledBlock) {
+        elapse(entered.getCycles());
+
+        programCounter = compiledBlock.execute(memoryUnit);
+        int last = entered.getLength() - 1;
+        if (entered.getOpcode(last) == RETI) {
+            interruptSystem.returnFromInterrupt();
+        }
+        if (traceRing != null) {
+            trace(entered.getAddress(last), entered.getOpcode(last));
+        }
+        programCounter = interruptSystem.getInterruptServiceRoutine(programCounter);
+    }
+
+    // peeks so that tracing neither triggers watchpoints nor synchronizes the timer
+    private void trace(int address, int opcode) {
+        InternalData internalData = memoryUnit.getInternalData();
+        traceRing.record(address, opcode, internalData.peek(ACC), internalData.peek(PSW), internalData.peek(SP),
+                scheduler.getCycle());
+    }
+
+    private void elapse(int cycles) {
+        scheduler.advance(cycles);
     }
 
 }
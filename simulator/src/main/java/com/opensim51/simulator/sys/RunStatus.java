@@ -0,0 +1,33 @@
+package com.opensim51.simulator.sys;
+
+// where a slice of the program left the machine
+public final class RunStatus {
+
+    private final int pc;
+    private final long cycles;
+    private final StopReason stopReason;
+
+    public RunStatus(int pc, long cycles, StopReason stopReason) {
+        this.pc = pc;
+        this.cycles = cycles;
+        this.stopReason = stopReason;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public long getCycles() {
+        return cycles;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s at %04X after %d cycles", stopReason, pc, cycles);
+    }
+
+}
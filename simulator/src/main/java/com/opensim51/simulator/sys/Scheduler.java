@@ -0,0 +1,102 @@
+package com.opensim51.simulator.sys;
+
+import java.util.PriorityQueue;
+
+// counts machine cycles and keeps the events of the peripherals ordered by their cycle
+public class Scheduler {
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>((a, b) -> Long.compare(a.cycle, b.cycle));
+
+    private long cycle;
+
+    // the cycle of the earliest event, kept aside so that advancing stays a comparison
+    private long nextCycle = Long.MAX_VALUE;
+
+    public Scheduler() {
+    }
+
+    public Scheduler(long cycle) {
+        this.cycle = cycle;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    public long getNextCycle() {
+        return nextCycle;
+    }
+
+    public void advance(int cycles) {
+        cycle += cycles;
+
+        if (cycle >= nextCycle) {
+            fire();
+        }
+    }
+
+    public void schedule(Event event, long cycle) {
+        if (event.scheduled) {
+            events.remove(event);
+        }
+
+        event.cycle = cycle;
+        event.scheduled = true;
+        events.add(event);
+        nextCycle = events.peek().cycle;
+    }
+
+    public void cancel(Event event) {
+        if (event.scheduled) {
+            events.remove(event);
+            event.scheduled = false;
+            nextCycle = events.isEmpty() ? Long.MAX_VALUE : events.peek().cycle;
+        }
+    }
+
+    public void reset() {
+        reset(0);
+    }
+
+    public void reset(long cycle) {
+        for (Event event : events) {
+            event.scheduled = false;
+        }
+        events.clear();
+
+        this.cycle = cycle;
+        nextCycle = Long.MAX_VALUE;
+    }
+
+    private void fire() {
+        while (!events.isEmpty() && events.peek().cycle <= cycle) {
+            Event event = events.poll();
+            event.scheduled = false;
+            event.action.run();
+        }
+
+        nextCycle = events.isEmpty() ? Long.MAX_VALUE : events.peek().cycle;
+    }
+
+    public static final class Event {
+
+        private final Runnable action;
+
+        private long cycle;
+        private boolean scheduled;
+
+        public Event(Runnable action) {
+            this.action = action;
+        }
+
+        public long getCycle() {
+            return cycle;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.Memory;
+import com.opensim51.simulator.memory.MemoryUnit;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// the memories share their pages with the machine until either writes, serialized only the pages that are not all zero
+// are kept
+public class Snapshot {
+
+    private static final int MAGIC = 0x53353131;
+    private static final int VERSION = 1;
+
+    private final long cycle;
+    private final int pc;
+    private final int interruptState;
+    private final MemoryUnit memoryUnit;
+
+    Snapshot(long cycle, int pc, int interruptState, MemoryUnit memoryUnit) {
+        this.cycle = cycle;
+        this.pc = pc;
+        this.interruptState = interruptState;
+        this.memoryUnit = memoryUnit;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    int getInterruptState() {
+        return interruptState;
+    }
+
+    MemoryUnit getMemoryUnit() {
+        return memoryUnit;
+    }
+
+    public byte[] toByteArray() {
+        Memory[] memories = getMemories(memoryUnit);
+
+        byte[][] images = new byte[memories.length][];
+        int size = 22;
+        for (int index = 0; index < memories.length; index++) {
+            images[index] = new byte[memories[index].getSize()];
+            memories[index].peek(0, images[index], 0, images[index].length);
+            size += 2 + countPages(images[index]) * (2 + Memory.PAGE_SIZE);
+        }
+
+        ByteBuffer blob = ByteBuffer.allocate(size);
+        blob.putInt(MAGIC);
+        blob.putInt(VERSION);
+        blob.putLong(cycle);
+        blob.putShort((short) pc);
+        blob.putInt(interruptState);
+        for (byte[] image : images) {
+            blob.putShort((short) countPages(image));
+            for (int page = 0; page < image.length / Memory.PAGE_SIZE; page++) {
+                if (!isZero(image, page)) {
+                    blob.putShort((short) page);
+                    blob.put(image, page * Memory.PAGE_SIZE, Memory.PAGE_SIZE);
+                }
+            }
+        }
+        return blob.array();
+    }
+
+    public static Snapshot fromByteArray(byte[] bytes) {
+        try {
+            ByteBuffer blob = ByteBuffer.wrap(bytes);
+            if (blob.getInt() != MAGIC || blob.getInt() != VERSION) {
+                throw new IllegalArgumentException("Value is out of range");
+            }
+
+            long cycle = blob.getLong();
+            int pc = blob.getShort() & 0xffff;
+            int interruptState = blob.getInt();
+
+            // the ports and SP hold their power-on values in a new memory unit
+            MemoryUnit memoryUnit = new MemoryUnit();
+            memoryUnit.getInternalData().clear();
+
+            byte[] page = new byte[Memory.PAGE_SIZE];
+            for (Memory memory : getMemories(memoryUnit)) {
+                int pages = blob.getShort() & 0xffff;
+                for (int index = 0; index < pages; index++) {
+                    int address = (blob.getShort() & 0xffff) * Memory.PAGE_SIZE;
+                    blob.get(page);
+                    memory.write(address, page, 0, page.length);
+                }
+            }
+
+            return new Snapshot(cycle, pc, interruptState, memoryUnit);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Value is out of range", e);
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        Files.write(file, toByteArray());
+    }
+
+    public static Snapshot load(Path file) throws IOException {
+        try {
+            return fromByteArray(Files.readAllBytes(file));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Not a snapshot", e);
+        }
+    }
+
+    private static Memory[] getMemories(MemoryUnit memoryUnit) {
+        return new Memory[]{memoryUnit.getInternalData(), memoryUnit.getExternalData(), memoryUnit.getExternalCode()};
+    }
+
+    private static int countPages(byte[] image) {
+        int pages = 0;
+        for (int page = 0; page < image.length / Memory.PAGE_SIZE; page++) {
+            if (!isZero(image, page)) {
+                pages++;
+            }
+        }
+        return pages;
+    }
+
+    private static boolean isZero(byte[] image, int page) {
+        for (int index = page * Memory.PAGE_SIZE; index < (page + 1) * Memory.PAGE_SIZE; index++) {
+            if (image[index] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
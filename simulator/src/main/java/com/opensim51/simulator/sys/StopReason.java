@@ -0,0 +1,20 @@
+package com.opensim51.simulator.sys;
+
+public enum StopReason {
+
+    // the slice executed the number of instructions or cycles it was given
+    SLICE_ENDED,
+
+    // the program counter reached an address with a breakpoint, the instruction there is not executed yet
+    BREAKPOINT,
+
+    // the last instruction made an access a watchpoint is set for
+    WATCHPOINT,
+
+    // cancel was called while the slice ran, the instruction or the translated block running then was completed
+    CANCELLED,
+
+    // running backwards reached the oldest state the history keeps
+    HISTORY_START
+
+}
@@ -1,95 +1,292 @@
 package com.opensim51.simulator.sys;
 
+import com.opensim51.simulator.memory.AccessListener;
 import com.opensim51.simulator.memory.InternalData;
-import com.opensim51.simulator.memory.datatype.UInt8;
+import com.opensim51.simulator.memory.WriteListener;
 
+import java.util.concurrent.locks.ReentrantLock;
+
+// works out the cycle of the next overflow instead of counting every cycle, TH0 and TL0 are updated lazily
 public class Timer0 {
 
-    private InternalData internalData;
-    private InternalData.BitField bitField;
-    private boolean t0;
+    private static final int TF1 = 0x80;
+    private static final int TR1 = 0x40;
+    private static final int TF0 = 0x20;
+    private static final int TR0 = 0x10;
+
+    private static final int GATE0 = 0x08;
+    private static final int C_T0 = 0x04;
+
+    private static final int INT0 = 0x04;
+    private static final int T0 = 0x10;
+
+    private static final int TL0_COUNTED = 0x1000000;
+    private static final int TH0_COUNTED = 0x2000000;
+
+    private final InternalData internalData;
+    private final Scheduler scheduler;
+    private final ReentrantLock lock;
+    private final Scheduler.Event overflow = new Scheduler.Event(this::overflow);
+
+    // the cycle up to which TH0 and TL0 are counted
+    private volatile long countedCycle;
+
+    // set while the timer accesses its own registers, those accesses are not reported back to it
+    private boolean updating;
+
+    // the configuration the count since countedCycle runs under
+    private int tmod;
+    private int tcon;
+    private int p3;
 
-    public Timer0(InternalData internalData) {
+    // only the thread holding the lock brings the registers up to date
+    public Timer0(InternalData internalData, Scheduler scheduler, ReentrantLock lock) {
         this.internalData = internalData;
-        this.bitField = internalData.bitField;
+        this.scheduler = scheduler;
+        this.lock = lock;
+        this.countedCycle = scheduler.getCycle();
+        this.tmod = internalData.TMOD.read();
+        this.tcon = internalData.TCON.read();
+        this.p3 = internalData.P3.read();
+
+        AccessListener accessListener = this::accessing;
+        internalData.setAccessListener(internalData.TL0.getAddress(), accessListener);
+        internalData.setAccessListener(internalData.TH0.getAddress(), accessListener);
+
+        WriteListener writeListener = this::written;
+        internalData.addWriteListener(internalData.TL0.getAddress(), writeListener);
+        internalData.addWriteListener(internalData.TH0.getAddress(), writeListener);
+        internalData.addWriteListener(internalData.TMOD.getAddress(), writeListener);
+        internalData.addWriteListener(internalData.TCON.getAddress(), writeListener);
+        internalData.addWriteListener(internalData.P3.getAddress(), writeListener);
+
+        reschedule();
+    }
+
+    // after the scheduler was set back to another cycle
+    void reset() {
+        countedCycle = scheduler.getCycle();
+        tmod = internalData.TMOD.read();
+        tcon = internalData.TCON.read();
+        p3 = internalData.P3.read();
+        reschedule();
+    }
+
+    // the restoring writes are neither counted nor seen as edges
+    void reset(Runnable restore) {
+        updating = true;
+        try {
+            restore.run();
+        } finally {
+            updating = false;
+        }
+        reset();
     }
 
     public int getMode() {
-        return internalData.TMOD.getValue().toInt() & 3;
+        return internalData.TMOD.read() & 3;
     }
 
     public boolean isRunning() {
-        return bitField.TR0.getValue();
+        return internalData.bitField.TR0.getValue();
     }
 
-    private boolean isCounter() {
-        return internalData.TMOD.getBitValue(2);
+    public void synchronize() {
+        if (updating) {
+            return;
+        }
+
+        long cycles = scheduler.getCycle() - countedCycle;
+        countedCycle = scheduler.getCycle();
+
+        if (cycles > 0) {
+            updating = true;
+            try {
+                count(cycles, 0);
+            } finally {
+                updating = false;
+            }
+        }
     }
 
-    private void updateT0() {
-        t0 = internalData.P3.getBitValue(4);
+    // other threads get the count as of now and change nothing
+    private int accessing(int address) {
+        if (updating) {
+            return internalData.peek(address);
+        }
+
+        if (lock.tryLock()) {
+            try {
+                synchronize();
+                return internalData.peek(address);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int counted = counted(scheduler.getCycle() - countedCycle, 0);
+        return address == internalData.TL0.getAddress() ? counted & 0xff : counted >>> 8 & 0xff;
     }
 
-    public void step() {
-        boolean tr0 = bitField.TR0.getValue();
-        boolean gate = bitField.GATE0.getValue();
-        boolean int0 = internalData.P3.getBitValue(2);
+    private void written(int address, int value) {
+        if (updating) {
+            return;
+        }
+
+        // the cycles before the write still count with the old configuration
+        synchronize();
+
+        if (address == internalData.TMOD.getAddress()) {
+            tmod = value;
+        } else if (address == internalData.TCON.getAddress()) {
+            tcon = value;
+        } else if (address == internalData.P3.getAddress()) {
+            boolean falling = (p3 & T0) != 0 && (value & T0) == 0;
+            p3 = value;
+
+            // a falling edge on T0 is a count in counter mode
+            if (falling) {
+                updating = true;
+                count(0, 1);
+                updating = false;
+            }
+        }
 
-        if (tr0 && (!gate || int0)) {
-            boolean previousT0 = t0;
-            updateT0();
+        reschedule();
+    }
 
-            UInt8 th0 = internalData.TH0.getValue();
-            UInt8 tl0 = internalData.TL0.getValue();
+    private void overflow() {
+        synchronize();
+        reschedule();
+    }
 
-            UInt8 newTh0 = th0;
-            UInt8 newTl0 = tl0;
+    private void reschedule() {
+        long cycles = getCyclesToOverflow();
+        if (cycles == Long.MAX_VALUE) {
+            scheduler.cancel(overflow);
+        } else {
+            scheduler.schedule(overflow, countedCycle + cycles);
+        }
+    }
 
-            boolean tf0 = false;
-            boolean tf1 = false;
+    private long getCyclesToOverflow() {
+        int tl0 = internalData.TL0.peek();
+        int th0 = internalData.TH0.peek();
 
-            if (getMode() == 3) {
-                newTh0 = th0.inc();
-                tf1 = th0.isPositiveOverflowable(UInt8.ONE);
+        long cycles = Long.MAX_VALUE;
+        if (isGateOpen() && (tmod & C_T0) == 0) {
+            switch (tmod & 3) {
+                case 0:
+                    cycles = 0x2000 - (th0 << 5 | tl0 & 0x1f);
+                    break;
+                case 1:
+                    cycles = 0x10000 - (th0 << 8 | tl0);
+                    break;
+                default:
+                    cycles = 0x100 - tl0;
+                    break;
             }
+        }
+
+        // in mode 3 TH0 is a timer of its own run by TR1
+        if ((tmod & 3) == 3 && (tcon & TR1) != 0) {
+            cycles = Math.min(cycles, 0x100 - th0);
+        }
+
+        return cycles;
+    }
+
+    private void count(long cycles, int edges) {
+        int counted = counted(cycles, edges);
+        if ((counted >>> 16 & 0xff) != 0) {
+            internalData.TCON.write(internalData.TCON.peek() | counted >>> 16 & 0xff);
+        }
+        if ((counted & TH0_COUNTED) != 0) {
+            internalData.TH0.write(counted >>> 8 & 0xff);
+        }
+        if ((counted & TL0_COUNTED) != 0) {
+            internalData.TL0.write(counted & 0xff);
+        }
+    }
+
+    // TL0, TH0 and the flags to set in TCON in the low three bytes and which registers were counted
+    private int counted(long cycles, int edges) {
+        int tl0 = internalData.TL0.peek();
+        int th0 = internalData.TH0.peek();
+        int counted = 0;
+
+        long increments = 0;
+        if (isGateOpen()) {
+            increments = (tmod & C_T0) == 0 ? cycles : edges;
+        }
 
-            if (!isCounter() || previousT0 && !t0) {
-                if (getMode() == 3) {
-                    newTl0 = tl0.inc();
-                    tf0 = tl0.isPositiveOverflowable(UInt8.ONE);
-                } else {
-                    short lowByteOverflowValue;
-                    if (getMode() == 0) {
-                        lowByteOverflowValue = 0x1f;
-                    } else {
-                        lowByteOverflowValue = 0xff;
+        switch (tmod & 3) {
+            case 0:
+                if (increments > 0) {
+                    long count = (th0 << 5 | tl0 & 0x1f) + increments;
+                    if (count > 0x1fff) {
+                        counted |= TF0 << 16;
                     }
 
-                    newTl0 = tl0.inc();
-                    if (tl0.toInt() == lowByteOverflowValue) {
-                        if (getMode() == 2) {
-                            newTl0 = th0;
-                            tf0 = true;
-                        } else {
-                            newTl0 = UInt8.ZERO;
-                            newTh0 = th0.inc();
-                            tf1 = th0.isPositiveOverflowable(UInt8.ONE);
-                        }
+                    // the upper three bits of TL0 are not part of the 13-bit count
+                    th0 = (int) (count >> 5) & 0xff;
+                    tl0 = tl0 & 0xe0 | (int) count & 0x1f;
+                    counted |= TH0_COUNTED | TL0_COUNTED;
+                }
+                break;
+            case 1:
+                if (increments > 0) {
+                    long count = (th0 << 8 | tl0) + increments;
+                    if (count > 0xffff) {
+                        counted |= TF0 << 16;
                     }
+
+                    th0 = (int) (count >> 8) & 0xff;
+                    tl0 = (int) count & 0xff;
+                    counted |= TH0_COUNTED | TL0_COUNTED;
                 }
-            }
+                break;
+            case 2:
+                if (increments > 0) {
+                    long count = tl0 + increments;
+                    if (count > 0xff) {
+                        counted |= TF0 << 16;
 
-            internalData.TH0.setValue(newTh0);
-            internalData.TL0.setValue(newTl0);
+                        // TL0 is reloaded from TH0 on every overflow
+                        count = th0 + (count - 0x100) % (0x100 - th0);
+                    }
 
-            if (tf0) {
-                bitField.TF0.setValue(tf0);
-            }
+                    tl0 = (int) count & 0xff;
+                    counted |= TL0_COUNTED;
+                }
+                break;
+            default:
+                if (increments > 0) {
+                    long count = tl0 + increments;
+                    if (count > 0xff) {
+                        counted |= TF0 << 16;
+                    }
 
-            if (tf1) {
-                bitField.TF1.setValue(tf1);
-            }
+                    tl0 = (int) count & 0xff;
+                    counted |= TL0_COUNTED;
+                }
+                if ((tcon & TR1) != 0 && cycles > 0) {
+                    long count = th0 + cycles;
+                    if (count > 0xff) {
+                        counted |= TF1 << 16;
+                    }
+
+                    th0 = (int) count & 0xff;
+                    counted |= TH0_COUNTED;
+                }
+                break;
         }
+
+        return counted | th0 << 8 | tl0;
+    }
+
+    private boolean isGateOpen() {
+        return (tcon & TR0) != 0 && ((tmod & GATE0) == 0 || (p3 & INT0) != 0);
     }
 
 }
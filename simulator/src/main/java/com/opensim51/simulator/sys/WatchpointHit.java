@@ -0,0 +1,42 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.Memory;
+
+// the watched access that stopped the program, made by the instruction before the one at the stop
+public final class WatchpointHit {
+
+    private final Memory memory;
+    private final int address;
+    private final int value;
+    private final boolean write;
+
+    WatchpointHit(Memory memory, int address, int value, boolean write) {
+        this.memory = memory;
+        this.address = address;
+        this.value = value;
+        this.write = write;
+    }
+
+    public Memory getMemory() {
+        return memory;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public boolean isWrite() {
+        return write;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s of %02X at %s %04X", write ? "write" : "read", value,
+                memory.getClass().getSimpleName(), address);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.opensim51.simulator.trace;
+
+import java.util.Arrays;
+
+import static com.opensim51.simulator.trace.TraceFormat.*;
+
+// decodes the records of a trace file one after the other, the getters describe the record next returned last
+public class TraceCursor {
+
+    private final TraceReader reader;
+
+    private long position;
+    private long remaining;
+
+    private int pc;
+    private long cycle;
+
+    // memory, address and value of every write of the record packed into one int each
+    private int[] writes = new int[16];
+    private int writeCount;
+
+    TraceCursor(TraceReader reader, long position, long remaining, int pc, long cycle) {
+        this.reader = reader;
+        this.position = position;
+        this.remaining = remaining;
+        this.pc = pc;
+        this.cycle = cycle;
+    }
+
+    public boolean next() {
+        if (remaining == 0) {
+            return false;
+        }
+
+        pc += unzigzag(getVarint());
+        long cycleAndCount = getVarint();
+        cycle += cycleAndCount >>> WRITE_COUNT_BITS;
+        writeCount = (int) (cycleAndCount & MORE_WRITES);
+        if (writeCount == MORE_WRITES) {
+            writeCount = (int) getVarint();
+        }
+
+        if (writeCount > writes.length) {
+            writes = Arrays.copyOf(writes, Integer.highestOneBit(writeCount) << 1);
+        }
+        for (int index = 0; index < writeCount; index++) {
+            int addressAndMemory = (int) getVarint();
+            writes[index] = (addressAndMemory & 3) << 24 | addressAndMemory >>> 2 << 8 | reader.get(position++) & 0xff;
+        }
+
+        remaining--;
+        return true;
+    }
+
+    // moves on until the next record is the first that ended at the cycle or later
+    void skipBefore(long target) {
+        while (true) {
+            long position = this.position;
+            int pc = this.pc;
+            long cycle = this.cycle;
+
+            if (!next()) {
+                return;
+            }
+            if (this.cycle >= target) {
+                this.position = position;
+                this.remaining++;
+                this.pc = pc;
+                this.cycle = cycle;
+                writeCount = 0;
+                return;
+            }
+        }
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    public int getWriteCount() {
+        return writeCount;
+    }
+
+    public int getWriteMemory(int index) {
+        return writes[index] >>> 24;
+    }
+
+    public int getWriteAddress(int index) {
+        return writes[index] >>> 8 & 0xffff;
+    }
+
+    public int getWriteValue(int index) {
+        return writes[index] & 0xff;
+    }
+
+    private long getVarint() {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = reader.get(position++);
+            value |= (long) (next & 0x7f) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+
+}
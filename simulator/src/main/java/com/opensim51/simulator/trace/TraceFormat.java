@@ -0,0 +1,34 @@
+package com.opensim51.simulator.trace;
+
+// a record is the PC difference as a zigzag varint, the cycles shifted left by three or-ed with the number of writes,
+// seven meaning the count follows, and the writes as address << 2 | memory and the byte, a checkpoint is the offset,
+// number, PC and cycle of the record before it
+public final class TraceFormat {
+
+    // the memories written
+    public static final int INTERNAL_DATA = 0;
+    public static final int EXTERNAL_DATA = 1;
+    public static final int EXTERNAL_CODE = 2;
+
+    static final int MAGIC = 0x54353131;
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 8;
+    static final int CHECKPOINT_SIZE = 28;
+    static final int FOOTER_SIZE = 32;
+
+    static final int WRITE_COUNT_BITS = 3;
+    static final int MORE_WRITES = (1 << WRITE_COUNT_BITS) - 1;
+
+    private TraceFormat() {
+    }
+
+    static long zigzag(int value) {
+        return (value << 1 ^ value >> 31) & 0xffffffffL;
+    }
+
+    static int unzigzag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+
+}
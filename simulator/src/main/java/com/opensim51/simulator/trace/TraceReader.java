@@ -0,0 +1,138 @@
+package com.opensim51.simulator.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static com.opensim51.simulator.trace.TraceFormat.*;
+
+// maps a trace file instead of loading it, the operating system pages in only the parts that are decoded
+public class TraceReader implements Closeable {
+
+    // files larger than a single mapping are mapped in segments
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+
+    private final long indexOffset;
+    private final int checkpointCount;
+    private final long recordCount;
+    private final long lastCycle;
+
+    public TraceReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int segment = 0; segment < segments.length; segment++) {
+                long offset = (long) segment << SEGMENT_SHIFT;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                        Math.min(size - offset, 1L << SEGMENT_SHIFT));
+            }
+
+            if (size < HEADER_SIZE + FOOTER_SIZE || getInt(0) != MAGIC || getInt(4) != VERSION
+                    || getInt(size - 4) != MAGIC) {
+                throw new IOException("Not a trace file");
+            }
+
+            long footer = size - FOOTER_SIZE;
+            indexOffset = getLong(footer);
+            checkpointCount = getInt(footer + 8);
+            recordCount = getLong(footer + 12);
+            lastCycle = getLong(footer + 20);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    public long getLastCycle() {
+        return lastCycle;
+    }
+
+    public TraceCursor cursor() {
+        return checkpointCount == 0 ? new TraceCursor(this, HEADER_SIZE, 0, 0, 0) : cursorAt(0);
+    }
+
+    // a cursor before the first instruction that ended at the cycle or later
+    public TraceCursor seek(long cycle) {
+        if (checkpointCount == 0) {
+            return cursor();
+        }
+
+        // the last checkpoint whose record before it ended before the cycle
+        int low = 0;
+        int high = checkpointCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (getLong(checkpoint(middle) + 20) < cycle) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        TraceCursor cursor = cursorAt(low);
+        cursor.skipBefore(cycle);
+        return cursor;
+    }
+
+    public void findWrites(int memory, int address, WriteVisitor visitor) {
+        TraceCursor cursor = cursor();
+        while (cursor.next()) {
+            for (int index = 0; index < cursor.getWriteCount(); index++) {
+                if (cursor.getWriteAddress(index) == address && cursor.getWriteMemory(index) == memory) {
+                    visitor.visit(cursor.getCycle(), cursor.getPc(), cursor.getWriteValue(index));
+                }
+            }
+        }
+    }
+
+    private TraceCursor cursorAt(int checkpoint) {
+        long offset = checkpoint(checkpoint);
+        return new TraceCursor(this, getLong(offset), recordCount - getLong(offset + 8), getInt(offset + 16),
+                getLong(offset + 20));
+    }
+
+    private long checkpoint(int checkpoint) {
+        return indexOffset + (long) checkpoint * CHECKPOINT_SIZE;
+    }
+
+    byte get(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private int getInt(long position) {
+        int value = 0;
+        for (int index = 0; index < 4; index++) {
+            value = value << 8 | get(position + index) & 0xff;
+        }
+        return value;
+    }
+
+    private long getLong(long position) {
+        return (long) getInt(position) << 32 | getInt(position + 4) & 0xffffffffL;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @FunctionalInterface
+    public interface WriteVisitor {
+
+        void visit(long cycle, int pc, int value);
+
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.opensim51.simulator.trace;
+
+// an executed instruction with the state it left ACC, PSW and SP in and the machine cycle it ended at
+public final class TraceRecord {
+
+    private final int pc;
+    private final int opcode;
+    private final int acc;
+    private final int psw;
+    private final int sp;
+    private final long cycle;
+
+    public TraceRecord(int pc, int opcode, int acc, int psw, int sp, long cycle) {
+        this.pc = pc;
+        this.opcode = opcode;
+        this.acc = acc;
+        this.psw = psw;
+        this.sp = sp;
+        this.cycle = cycle;
+    }
+
+    public int getPc() {
+        return pc;
+    }
+
+    public int getOpcode() {
+        return opcode;
+    }
+
+    public int getAcc() {
+        return acc;
+    }
+
+    public int getPsw() {
+        return psw;
+    }
+
+    public int getSp() {
+        return sp;
+    }
+
+    public long getCycle() {
+        return cycle;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%04X %02X A=%02X PSW=%02X SP=%02X @%d", pc, opcode, acc, psw, sp, cycle);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.opensim51.simulator.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// the writer takes no lock and allocates nothing, readers on other threads take snapshots meanwhile
+public class TraceRing {
+
+    // the cycle and then pc, opcode, ACC, PSW and SP packed into the low six bytes of a second long
+    private static final int RECORD_LONGS = 2;
+
+    private final AtomicLongArray records;
+
+    // a seqlock per slot, 2 * index + 1 while its record is written and 2 * index + 2 once it is complete
+    private final AtomicLongArray sequences;
+
+    private final int mask;
+
+    private long written;
+
+    private final AtomicLong published = new AtomicLong();
+
+    // the oldest record is the one overwritten next, so snapshots hold one less than the capacity
+    public TraceRing(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1 || capacity > Integer.MAX_VALUE / RECORD_LONGS) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        this.records = new AtomicLongArray(capacity * RECORD_LONGS);
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public long getCount() {
+        return published.get();
+    }
+
+    public void record(int pc, int opcode, int acc, int psw, int sp, long cycle) {
+        int slot = (int) (written & mask);
+
+        // each ordered store is seen only after the ones before it
+        sequences.lazySet(slot, written * 2 + 1);
+        records.lazySet(slot * RECORD_LONGS, cycle);
+        records.lazySet(slot * RECORD_LONGS + 1, (long) (pc & 0xffff) << 32 | (long) (opcode & 0xff) << 24
+                | (acc & 0xff) << 16 | (psw & 0xff) << 8 | sp & 0xff);
+        sequences.lazySet(slot, written * 2 + 2);
+
+        published.lazySet(++written);
+    }
+
+    public List<TraceRecord> snapshot(int count) {
+        long end = published.get();
+        long start = Math.max(0, end - Math.min(count, getCapacity() - 1));
+
+        List<TraceRecord> snapshot = new ArrayList<>((int) (end - start));
+        for (long index = start; index < end; index++) {
+            int slot = (int) (index & mask);
+            long sequence = index * 2 + 2;
+            if (sequences.get(slot) != sequence) {
+
+                // the writer went past this record and therefore past every older one
+                snapshot.clear();
+                continue;
+            }
+
+            long cycle = records.get(slot * RECORD_LONGS);
+            long packed = records.get(slot * RECORD_LONGS + 1);
+            if (sequences.get(slot) != sequence) {
+                snapshot.clear();
+                continue;
+            }
+
+            snapshot.add(new TraceRecord((int) (packed >>> 32) & 0xffff, (int) (packed >>> 24) & 0xff,
+                    (int) (packed >>> 16) & 0xff, (int) (packed >>> 8) & 0xff, (int) packed & 0xff, cycle));
+        }
+        return snapshot;
+    }
+
+}
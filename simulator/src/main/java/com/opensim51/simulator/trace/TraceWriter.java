@@ -0,0 +1,160 @@
+package com.opensim51.simulator.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.opensim51.simulator.trace.TraceFormat.*;
+
+// the writes of an instruction are collected until it is reported as executed
+public class TraceWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // the largest part of a record written at once, a varint of a long and a bit of room
+    private static final int MAX_FIELD_SIZE = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int checkpointInterval;
+
+    private long flushed;
+
+    private int previousPc;
+    private long previousCycle;
+    private long records;
+
+    // the writes of the running instruction, memory, address and value packed into one int each
+    private int[] writes = new int[16];
+    private int writeCount;
+
+    private long[] checkpoints = new long[64];
+    private int checkpointCount;
+
+    public TraceWriter(Path file) throws IOException {
+        this(file, 4096);
+    }
+
+    // a checkpoint every checkpointInterval records, fewer make a smaller index and slower seeks
+    public TraceWriter(Path file, int checkpointInterval) throws IOException {
+        if (checkpointInterval <= 0) {
+            throw new IllegalArgumentException("Value is out of range");
+        }
+
+        this.checkpointInterval = checkpointInterval;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+    }
+
+    public void written(int memory, int address, int value) {
+        if (writeCount == writes.length) {
+            writes = Arrays.copyOf(writes, writeCount * 2);
+        }
+        writes[writeCount++] = memory << 24 | address << 8 | value & 0xff;
+    }
+
+    // failures to write are thrown unchecked since they happen in the middle of running the program
+    public void executed(int pc, long cycle) {
+        if (records % checkpointInterval == 0) {
+            checkpoint();
+        }
+
+        ensure(2 * MAX_FIELD_SIZE);
+        putVarint(zigzag(pc - previousPc));
+        putVarint((cycle - previousCycle) << WRITE_COUNT_BITS | Math.min(writeCount, MORE_WRITES));
+        if (writeCount >= MORE_WRITES) {
+            putVarint(writeCount);
+        }
+
+        for (int index = 0; index < writeCount; index++) {
+            int write = writes[index];
+            ensure(MAX_FIELD_SIZE);
+            putVarint((write >>> 8 & 0xffff) << 2 | write >>> 24);
+            buffer.put((byte) write);
+        }
+
+        writeCount = 0;
+        previousPc = pc;
+        previousCycle = cycle;
+        records++;
+    }
+
+    public long getRecordCount() {
+        return records;
+    }
+
+    private void checkpoint() {
+        if (checkpointCount * 4 == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpoints.length * 2);
+        }
+
+        int index = checkpointCount++ * 4;
+        checkpoints[index] = flushed + buffer.position();
+        checkpoints[index + 1] = records;
+        checkpoints[index + 2] = previousPc;
+        checkpoints[index + 3] = previousCycle;
+    }
+
+    // writes collected after the last executed instruction are dropped
+    @Override
+    public void close() throws IOException {
+        try {
+            long indexOffset = flushed + buffer.position();
+            for (int index = 0; index < checkpointCount * 4; index += 4) {
+                ensure(CHECKPOINT_SIZE);
+                buffer.putLong(checkpoints[index]);
+                buffer.putLong(checkpoints[index + 1]);
+                buffer.putInt((int) checkpoints[index + 2]);
+                buffer.putLong(checkpoints[index + 3]);
+            }
+
+            ensure(FOOTER_SIZE);
+            buffer.putLong(indexOffset);
+            buffer.putInt(checkpointCount);
+            buffer.putLong(records);
+            buffer.putLong(previousCycle);
+            buffer.putInt(MAGIC);
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7fL) != 0) {
+            buffer.put((byte) (value | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int length) {
+        if (buffer.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() {
+        ((Buffer) buffer).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                flushed += channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.opensim51.simulator;
+
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.Memory;
+import com.opensim51.simulator.memory.datatype.UInt16;
+import com.opensim51.simulator.sys.History;
+import com.opensim51.simulator.sys.RunStatus;
+import com.opensim51.simulator.sys.StopReason;
+import com.opensim51.simulator.trace.TraceRing;
+import com.opensim51.simulator.trace.TraceWriter;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class SimulatorPoolTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final byte[] COUNTER = {
+            0x75, (byte) 0x89, 0x01,    // MOV  TMOD, #1
+            (byte) 0xd2, (byte) 0x8c,   // SETB TR0
+            0x05, 0x30,                 // INC  30h
+            (byte) 0x80, (byte) 0xfc};  // SJMP 0005h
+
+    private final ExecutionListener listener = new ExecutionListenerAdapter(false) {
+        @Override
+        public void process(UInt16 programCounter) {
+        }
+    };
+
+    @Test
+    public void releasedSimulatorsAreResetAndReused() {
+        SimulatorPool pool = new SimulatorPool(1);
+        Simulator simulator = pool.acquire();
+        simulator.getExternalCode().write(0, COUNTER, 0, COUNTER.length);
+        simulator.getExternalData().write(0x1234, 0x56);
+        simulator.getInternalData().PSW.write(0x18);
+        for (int i = 0; i < 10; i++) {
+            simulator.step(listener);
+        }
+
+        pool.release(simulator);
+        pool.release(new Simulator());
+        assertEquals(1, pool.getIdleCount());
+
+        Simulator reused = pool.acquire();
+        assertSame(simulator, reused);
+        assertEquals(0, pool.getIdleCount());
+
+        InternalData data = reused.getInternalData();
+        assertEquals(0, reused.getCycles());
+        assertEquals(UInt16.valueOf(0), reused.getProgramCounter());
+        assertEquals(0x00, reused.getExternalData().read(0x1234));
+        assertEquals(0x00, reused.getExternalCode().read(0x0000));
+        assertEquals(0x00, data.TL0.read());
+        assertEquals(0x00, data.getRegisterBase());
+        assertEquals(0x08, data.SP.read());
+        assertEquals(0xff, data.P3.read());
+        assertFalse(data.bitField.IE0.getValue());
+
+        // a reset simulator runs the same program exactly like a new one
+        Simulator fresh = new Simulator();
+        reused.getExternalCode().write(0, COUNTER, 0, COUNTER.length);
+        fresh.getExternalCode().write(0, COUNTER, 0, COUNTER.length);
+        for (int i = 0; i < 100; i++) {
+            reused.step(listener);
+            fresh.step(listener);
+        }
+        for (int address = 0; address < data.getSize(); address++) {
+            assertEquals(fresh.getInternalData().read(address), data.read(address));
+        }
+        assertEquals(fresh.getCycles(), reused.getCycles());
+    }
+
+    @Test
+    public void resetKeepsTheProgram() {
+        Simulator simulator = new Simulator();
+        simulator.getExternalCode().write(0, COUNTER, 0, COUNTER.length);
+        simulator.getExternalData().write(0x1234, 0x56);
+        for (int i = 0; i < 10; i++) {
+            simulator.step(listener);
+        }
+
+        simulator.reset();
+        assertEquals(0, simulator.getCycles());
+        assertEquals(0x00, simulator.getExternalData().read(0x1234));
+        assertEquals(0x75, simulator.getExternalCode().read(0x0000));
+
+        for (int i = 0; i < 3; i++) {
+            simulator.step(listener);
+        }
+        assertEquals(0x01, simulator.getInternalData().read(0x30));
+    }
+
+    @Test
+    public void releasedSimulatorsKeepNothingTheirUserAttached() throws IOException {
+        SimulatorPool pool = new SimulatorPool(1);
+        Simulator simulator = pool.acquire();
+        List<Integer> calls = new ArrayList<>();
+
+        simulator.getBreakpoints().set(0x0005);
+        simulator.getBreakpoints().set(0x0007, (memoryUnit, pc) -> true);
+        simulator.getBreakpoints().setCondition((memoryUnit, pc) -> true);
+        simulator.getInternalData().setWatchpoint(0x30, Memory.WATCH_WRITE);
+        simulator.getExternalData().setWatchpoint(0x1234, Memory.WATCH_READ);
+        simulator.getExternalCode().setWatchpoint(0x0000, Memory.WATCH_READ);
+        simulator.getInternalData().addWriteListener(0x89, (address, value) -> calls.add(address));
+        simulator.setTracer(new ExecutionListenerAdapter(true) {
+            @Override
+            public void process(UInt16 programCounter) {
+                calls.add(programCounter.toInt());
+            }
+        });
+        simulator.setTraceRing(new TraceRing(4));
+        try (TraceWriter traceWriter = new TraceWriter(folder.newFile().toPath())) {
+            simulator.setTraceWriter(traceWriter);
+            simulator.setHistory(new History(100, 1 << 20));
+            simulator.cancel();
+
+            pool.release(simulator);
+        }
+
+        Simulator reused = pool.acquire();
+        assertSame(simulator, reused);
+        assertTrue(reused.getBreakpoints().isEmpty());
+        assertFalse(reused.getBreakpoints().contains(0x0007));
+        assertNull(reused.getBreakpoints().getCondition());
+        assertFalse(reused.getInternalData().hasWatchpoints());
+        assertFalse(reused.getExternalData().hasWatchpoints());
+        assertFalse(reused.getExternalCode().hasWatchpoints());
+        assertNull(reused.getTraceRing());
+        assertNull(reused.getTraceWriter());
+        assertNull(reused.getHistory());
+
+        // the program runs its whole slice unobserved, and timer 0 still counts
+        reused.getExternalCode().write(0, COUNTER, 0, COUNTER.length);
+        RunStatus status = reused.runSlice(100, Long.MAX_VALUE);
+        assertEquals(StopReason.SLICE_ENDED, status.getStopReason());
+        assertTrue(calls.isEmpty());
+        assertNotEquals(0x00, reused.getInternalData().TL0.read());
+    }
+
+    @Test
+    public void simulatorsRunConcurrently() throws Exception {
+        SimulatorPool pool = new SimulatorPool(4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int job = 0; job < 16; job++) {
+                int steps = 100 + job;
+                results.add(executor.submit(() -> {
+                    Simulator simulator = pool.acquire();
+                    try {
+                        simulator.getExternalCode().write(0, COUNTER, 0, COUNTER.length);
+                        for (int i = 0; i < steps; i++) {
+                            simulator.step(listener);
+                        }
+                        return simulator.getInternalData().read(0x30);
+                    } finally {
+                        pool.release(simulator);
+                    }
+                }));
+            }
+
+            // two steps set the timer up, then every other step is an INC
+            for (int job = 0; job < results.size(); job++) {
+                assertEquals((100 + job - 2 + 1) / 2, (int) results.get(job).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
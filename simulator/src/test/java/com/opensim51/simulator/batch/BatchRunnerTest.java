@@ -0,0 +1,125 @@
+package com.opensim51.simulator.batch;
+
+import com.opensim51.simulator.memory.Memory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+
+    private static final byte[] COPY_P1 = {
+            (byte) 0xe5, (byte) 0x90,   // MOV  A, P1
+            (byte) 0xf5, 0x30,          // MOV  30h, A
+            0x05, 0x31,                 // INC  31h
+            (byte) 0x80, (byte) 0xf8};  // SJMP 0000h
+
+    private BatchRunner runner;
+
+    @Before
+    public void setUp() {
+        runner = new BatchRunner(4);
+    }
+
+    @After
+    public void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    public void jobsEndWithTheirExitReasons() {
+        List<Job> jobs = new ArrayList<>();
+        for (int job = 0; job < 32; job++) {
+            int value = job;
+            jobs.add(new Job("copy " + job, COPY_P1,
+                    simulator -> simulator.getInternalData().P1.write(value),
+                    simulator -> simulator.getInternalData().read(0x31) == 10, 1_000));
+        }
+        jobs.add(new Job("budget", COPY_P1, null, null, 100));
+        jobs.add(new Job("reserved", new byte[]{0x00, (byte) 0xa5}, null, null, 100));
+
+        Map<String, JobResult> results = new ConcurrentHashMap<>();
+        runner.run(jobs, result -> results.put(result.getJob().getName(), result));
+        assertEquals(jobs.size(), results.size());
+
+        for (int job = 0; job < 32; job++) {
+            JobResult result = results.get("copy " + job);
+            assertEquals(ExitReason.STOPPED, result.getExitReason());
+            assertEquals(0x0006, result.getPc());
+            assertEquals(48, result.getCycles());
+            assertNull(result.getFailure());
+        }
+
+        // the jobs differ in the value they copy only
+        assertEquals(results.get("copy 1").getExternalDataDigest(), results.get("copy 2").getExternalDataDigest());
+        assertNotEquals(results.get("copy 1").getRegisterDigest(), results.get("copy 2").getRegisterDigest());
+        assertNotEquals(results.get("copy 1").getInternalDataDigest(), results.get("copy 2").getInternalDataDigest());
+
+        JobResult budget = results.get("budget");
+        assertEquals(ExitReason.BUDGET_EXHAUSTED, budget.getExitReason());
+        assertEquals(100, budget.getCycles());
+
+        JobResult reserved = results.get("reserved");
+        assertEquals(ExitReason.FAILED, reserved.getExitReason());
+        assertEquals("Reserved opcode", reserved.getFailure());
+    }
+
+    @Test
+    public void stopsOfTheSimulatorAreReported() {
+        List<Job> jobs = new ArrayList<>();
+        jobs.add(new Job("breakpoint", COPY_P1, simulator -> simulator.getBreakpoints().set(0x0004),
+                simulator -> simulator.getInternalData().read(0x31) == 10, 1_000));
+        jobs.add(new Job("watchpoint", COPY_P1,
+                simulator -> simulator.getInternalData().setWatchpoint(0x30, Memory.WATCH_WRITE), null, 1_000));
+
+        Map<String, JobResult> results = new ConcurrentHashMap<>();
+        runner.run(jobs, result -> results.put(result.getJob().getName(), result));
+
+        assertEquals(ExitReason.BREAKPOINT, results.get("breakpoint").getExitReason());
+        assertEquals(0x0004, results.get("breakpoint").getPc());
+        assertEquals(ExitReason.WATCHPOINT, results.get("watchpoint").getExitReason());
+        assertEquals(0x0004, results.get("watchpoint").getPc());
+
+        // the program runs until it is cancelled from another thread, which goes on until every job has ended
+        AtomicBoolean ended = new AtomicBoolean();
+        Job cancelled = new Job("cancelled", COPY_P1, simulator -> new Thread(() -> {
+            while (!ended.get()) {
+                simulator.cancel();
+            }
+        }).start(), null, Long.MAX_VALUE);
+
+        runner.run(Collections.singletonList(cancelled), result -> results.put(result.getJob().getName(), result));
+        ended.set(true);
+        assertEquals(ExitReason.CANCELLED, results.get("cancelled").getExitReason());
+    }
+
+    @Test
+    public void repeatedJobsHaveTheSameDigests() {
+        List<Job> jobs = new ArrayList<>();
+        for (int job = 0; job < 8; job++) {
+            jobs.add(new Job(Integer.toString(job), COPY_P1, null, null, 10_000));
+        }
+
+        List<JobResult> results = new ArrayList<>();
+        runner.run(jobs, result -> {
+            synchronized (results) {
+                results.add(result);
+            }
+        });
+
+        for (JobResult result : results) {
+            assertEquals(results.get(0).getRegisterDigest(), result.getRegisterDigest());
+            assertEquals(results.get(0).getInternalDataDigest(), result.getInternalDataDigest());
+            assertEquals(10_000, result.getCycles());
+        }
+    }
+
+}
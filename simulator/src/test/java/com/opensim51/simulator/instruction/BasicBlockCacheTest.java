@@ -0,0 +1,84 @@
+package com.opensim51.simulator.instruction;
+
+import com.opensim51.simulator.memory.ExternalCode;
+import com.opensim51.simulator.memory.datatype.UInt16;
+import com.opensim51.simulator.memory.datatype.UInt8;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BasicBlockCacheTest {
+
+    private ExternalCode code;
+    private BasicBlockCache cache;
+
+    @Before
+    public void setUp() {
+        code = new ExternalCode();
+        cache = new BasicBlockCache(code, InstructionFactory.getInstructions(DispatchMode.SPECIALIZED));
+
+        burn(0x0100,
+                0x74, 0x12,         // MOV  A, #12h
+                0xf8,               // MOV  R0, A
+                0x75, 0x30, 0x05,   // MOV  30h, #5
+                0xdf, 0xf8,         // DJNZ R7, 0100h
+                0x04);              // INC  A
+    }
+
+    @Test
+    public void blockEndsWithBranch() {
+        BasicBlock block = cache.get(0x0100);
+
+        assertEquals(4, block.getLength());
+        assertEquals(8, block.getSize());
+        assertEquals(0x0103, block.getAddress(2));
+        assertEquals(0x75, block.getOpcode(2));
+        assertEquals(0x30, block.getOperand1(2));
+        assertEquals(0x05, block.getOperand2(2));
+        assertEquals(0xdf, block.getOpcode(3));
+        assertSame(block, cache.get(0x0100));
+    }
+
+    @Test
+    public void writeInsideBlockInvalidatesIt() {
+        BasicBlock block = cache.get(0x0100);
+        BasicBlock tail = cache.get(0x0103);
+
+        code.setCellValue(UInt16.valueOf(0x0104), UInt8.valueOf(0x31));
+
+        assertFalse(block.isValid());
+        assertFalse(tail.isValid());
+
+        BasicBlock decoded = cache.get(0x0100);
+        assertNotSame(block, decoded);
+        assertEquals(0x31, decoded.getOperand1(2));
+    }
+
+    @Test
+    public void writeOutsideBlockKeepsIt() {
+        BasicBlock block = cache.get(0x0100);
+
+        code.write(0x0108, 0x14);
+        code.write(0x00ff, 0x00);
+
+        assertTrue(block.isValid());
+        assertSame(block, cache.get(0x0100));
+    }
+
+    @Test
+    public void reservedOpcodeEndsBlock() {
+        burn(0x0200, 0xe4, 0xa5);
+
+        BasicBlock block = cache.get(0x0200);
+        assertEquals(1, block.getLength());
+        assertEquals(0, cache.get(0x0201).getLength());
+    }
+
+    private void burn(int address, int... bytes) {
+        for (int b : bytes) {
+            code.write(address++, b);
+        }
+    }
+
+}
@@ -17,7 +17,7 @@ public class InstructionTypeTest {
 
     @Before
     public void setUp() throws Exception {
-        s = Simulator.getInstance();
+        s = new Simulator();
         id = s.getInternalData();
         xd = s.getExternalData();
         xc = s.getExternalCode();
@@ -0,0 +1,259 @@
+package com.opensim51.simulator.instruction;
+
+import com.opensim51.simulator.memory.ExternalCode;
+import com.opensim51.simulator.memory.ExternalData;
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.MemoryUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpecializedOperationsTest {
+
+    private MemoryUnit memoryUnit;
+    private InternalData data;
+
+    @Before
+    public void setUp() {
+        memoryUnit = new MemoryUnit();
+        data = memoryUnit.getInternalData();
+    }
+
+    @Test
+    public void tablesCoverTheSameOpcodes() {
+        Instruction[] generic = InstructionFactory.getInstructions(DispatchMode.GENERIC);
+        Instruction[] specialized = InstructionFactory.getInstructions(DispatchMode.SPECIALIZED);
+
+        for (int opcode = 0; opcode < 256; opcode++) {
+            assertEquals(opcode == 0xa5, generic[opcode] == null);
+            assertEquals(opcode == 0xa5, specialized[opcode] == null);
+            if (opcode != 0xa5) {
+                assertEquals(generic[opcode].getBytes(), specialized[opcode].getBytes());
+            }
+        }
+    }
+
+    @Test
+    public void genericHandlersMatchTheSpecializedOnes() {
+        for (int opcode = 0; opcode < 256; opcode++) {
+            if (opcode == 0xa5) {
+                continue;
+            }
+
+            for (int round = 0; round < 16; round++) {
+                MemoryUnit generic = new MemoryUnit();
+                MemoryUnit specialized = new MemoryUnit();
+                int[] addresses = randomState(generic, opcode, round);
+                randomState(specialized, opcode, round);
+
+                int pc = addresses[0];
+                String name = String.format("opcode %02x, round %d", opcode, round);
+                Instruction specializedInstruction = InstructionFactory.getByOpcode(opcode, DispatchMode.SPECIALIZED);
+                Instruction genericInstruction = InstructionFactory.getByOpcode(opcode, DispatchMode.GENERIC);
+                assertEquals(name, specializedInstruction.execute(pc, specialized), genericInstruction.execute(pc, generic));
+                for (int address = 0; address < 0x100; address++) {
+                    assertEquals(name, specialized.getInternalData().peek(address),
+                            generic.getInternalData().peek(address));
+                }
+                for (int index = 1; index < addresses.length; index++) {
+                    assertEquals(name, specialized.getExternalData().peek(addresses[index]),
+                            generic.getExternalData().peek(addresses[index]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void addSetsFlags() {
+        data.ACC.write(0x7f);
+        assertEquals(0x0102, execute(0x0100, 0x24, 0x01));     // ADD A, #1
+
+        assertEquals(0x80, data.ACC.read());
+        assertFalse(data.bitField.CY.getValue());
+        assertTrue(data.bitField.AC.getValue());
+        assertTrue(data.bitField.OV.getValue());
+
+        data.ACC.write(0xff);
+        data.bitField.CY.setValue(true);
+        execute(0x0000, 0x34, 0x00);                            // ADDC A, #0
+
+        assertEquals(0x00, data.ACC.read());
+        assertTrue(data.bitField.CY.getValue());
+        assertFalse(data.bitField.OV.getValue());
+    }
+
+    @Test
+    public void subtractWithBorrowSetsFlags() {
+        data.ACC.write(0x00);
+        data.bitField.CY.setValue(true);
+        data.writeRegister(3, 0x00);
+        execute(0x0000, 0x9b);                                  // SUBB A, R3
+
+        assertEquals(0xff, data.ACC.read());
+        assertTrue(data.bitField.CY.getValue());
+        assertTrue(data.bitField.AC.getValue());
+        assertFalse(data.bitField.OV.getValue());
+
+        data.ACC.write(0x80);
+        data.bitField.CY.setValue(false);
+        execute(0x0000, 0x94, 0x01);                            // SUBB A, #1
+
+        assertEquals(0x7f, data.ACC.read());
+        assertFalse(data.bitField.CY.getValue());
+        assertTrue(data.bitField.OV.getValue());
+    }
+
+    @Test
+    public void decimalAdjust() {
+        data.ACC.write(0x56);
+        execute(0x0000, 0x24, 0x67);                            // ADD A, #67h
+        execute(0x0000, 0xd4);                                  // DA A
+
+        assertEquals(0x23, data.ACC.read());
+        assertTrue(data.bitField.CY.getValue());
+    }
+
+    @Test
+    public void multiplyAndDivide() {
+        data.ACC.write(0x50);
+        data.B.write(0xa0);
+        execute(0x0000, 0xa4);                                  // MUL AB
+
+        assertEquals(0x00, data.ACC.read());
+        assertEquals(0x32, data.B.read());
+        assertTrue(data.bitField.OV.getValue());
+
+        data.ACC.write(0xfb);
+        data.B.write(0x12);
+        execute(0x0000, 0x84);                                  // DIV AB
+
+        assertEquals(0x0d, data.ACC.read());
+        assertEquals(0x11, data.B.read());
+        assertFalse(data.bitField.OV.getValue());
+
+        data.B.write(0x00);
+        execute(0x0000, 0x84);                                  // DIV AB
+
+        assertTrue(data.bitField.OV.getValue());
+        assertFalse(data.bitField.CY.getValue());
+    }
+
+    @Test
+    public void compareAndJump() {
+        data.ACC.write(0x10);
+        assertEquals(0x0005, execute(0x0010, 0xb4, 0x20, 0xf2));   // CJNE A, #20h, -14
+        assertTrue(data.bitField.CY.getValue());
+
+        assertEquals(0x0013, execute(0x0010, 0xb4, 0x10, 0xf2));   // CJNE A, #10h, -14
+        assertFalse(data.bitField.CY.getValue());
+    }
+
+    @Test
+    public void absoluteCallAndReturn() {
+        assertEquals(0x0f23, execute(0x0abc, 0xf1, 0x23));         // ACALL 0F23h
+        assertEquals(0x0a, data.SP.read());
+
+        assertEquals(0x0abe, execute(0x0f23, 0x22));               // RET
+        assertEquals(0x08, data.SP.read());
+
+        assertEquals(0x2b45, execute(0x27fe, 0x61, 0x45));         // AJMP, the page of the next instruction
+    }
+
+    @Test
+    public void moveCodeAndExchangeDigit() {
+        memoryUnit.getExternalCode().write(0x1234, 0x5a);
+        data.setDptr(0x1230);
+        data.ACC.write(0x04);
+        execute(0x0000, 0x93);                                      // MOVC A, @A+DPTR
+
+        assertEquals(0x5a, data.ACC.read());
+
+        data.writeRegister(1, 0x40);
+        data.write(0x40, 0x3c);
+        execute(0x0000, 0xd7);                                      // XCHD A, @R1
+
+        assertEquals(0x5c, data.ACC.read());
+        assertEquals(0x3a, data.read(0x40));
+    }
+
+    @Test
+    public void registerBankSelection() {
+        data.bitField.RS0.setValue(true);
+        data.bitField.RS1.setValue(true);
+        execute(0x0000, 0x7a, 0x42);                                // MOV R2, #42h
+
+        assertEquals(0x42, data.read(0x1a));
+        assertEquals(0x00, data.read(0x02));
+    }
+
+    @Test
+    public void bitOperations() {
+        execute(0x0000, 0xd2, 0x09);                                // SETB 09h
+        assertEquals(0x02, data.read(0x21));
+
+        execute(0x0000, 0xa2, 0x09);                                // MOV C, 09h
+        assertTrue(data.bitField.CY.getValue());
+
+        execute(0x0000, 0xb2, 0x97);                                // CPL P1.7
+        assertEquals(0x7f, data.P1.read());
+
+        assertEquals(0x0033, execute(0x0000, 0x10, 0x09, 0x30));    // JBC 09h, 30h
+        assertEquals(0x00, data.read(0x21));
+    }
+
+    // random cells wherever the instruction may read and the external data addresses it may access, the address of
+    // the instruction comes first
+    private static int[] randomState(MemoryUnit memoryUnit, int opcode, int round) {
+        Random random = new Random(opcode * 16 + round);
+        InternalData data = memoryUnit.getInternalData();
+        ExternalData externalData = memoryUnit.getExternalData();
+        ExternalCode code = memoryUnit.getExternalCode();
+
+        for (int address = 0; address < 0x100; address++) {
+            data.write(address, random.nextInt(0x100));
+        }
+
+        int pc = random.nextInt(0x10000);
+        int acc = data.ACC.read();
+        code.write((data.getDptr() + acc) & 0xffff, random.nextInt(0x100));
+        code.write((pc + 1 + acc) & 0xffff, random.nextInt(0x100));
+
+        int[] addresses = {pc, data.getDptr(), data.P2.read() << 8 | data.R0.read(),
+                data.P2.read() << 8 | data.R1.read()};
+        for (int index = 1; index < addresses.length; index++) {
+            externalData.write(addresses[index], random.nextInt(0x100));
+        }
+
+        code.write(pc, opcode);
+        code.write((pc + 1) & 0xffff, random.nextInt(0x100));
+        code.write((pc + 2) & 0xffff, random.nextInt(0x100));
+        return addresses;
+    }
+
+    private int execute(int pc, int... bytes) {
+        Instruction instruction = InstructionFactory.getByOpcode(bytes[0], DispatchMode.SPECIALIZED);
+        int operand1 = bytes.length > 1 ? bytes[1] : 0;
+        int operand2 = bytes.length > 2 ? bytes[2] : 0;
+        return instruction.execute(pc, operand1, operand2, memoryUnit);
+    }
+
+    @Test
+    public void parityFollowsTheAccumulator() {
+        execute(0x0000, 0x74, 0x03);                                // MOV A, #3
+        assertFalse(data.bitField.P.getValue());
+
+        execute(0x0000, 0x04);                                      // INC A
+        assertTrue(data.bitField.P.getValue());
+
+        // the flag can not be written
+        data.PSW.write(0x00);
+        assertEquals(0x01, data.PSW.read());
+
+        execute(0x0000, 0xd2, 0xe0);                                // SETB ACC.0
+        assertEquals(0x00, data.PSW.read());
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.opensim51.simulator.jit;
+
+import com.opensim51.simulator.instruction.BasicBlock;
+import com.opensim51.simulator.instruction.BasicBlockCache;
+import com.opensim51.simulator.instruction.DispatchMode;
+import com.opensim51.simulator.instruction.InstructionFactory;
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.MemoryUnit;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class BlockCompilerTest {
+
+    private final BlockCompiler compiler = new BlockCompiler();
+
+    private MemoryUnit memoryUnit;
+    private BasicBlockCache cache;
+
+    @Before
+    public void setUp() {
+        Assume.assumeTrue(compiler.isAvailable());
+
+        memoryUnit = new MemoryUnit();
+        cache = new BasicBlockCache(memoryUnit.getExternalCode(),
+                InstructionFactory.getInstructions(DispatchMode.SPECIALIZED));
+
+        int address = 0x0200;
+        for (int b : new int[]{
+                0x74, 0x12,         // MOV  A, #12h
+                0x24, 0xf0,         // ADD  A, #0F0h
+                0xf8,               // MOV  R0, A
+                0x75, 0x30, 0x05,   // MOV  30h, #5
+                0xd5, 0x30, 0xf5}) {  // DJNZ 30h, 0200h
+            memoryUnit.getExternalCode().write(address++, b);
+        }
+    }
+
+    @Test
+    public void compiledBlockMatchesInterpreter() {
+        BasicBlock block = cache.get(0x0200);
+        compiler.compile(Collections.singletonList(block));
+
+        CompiledBlock compiledBlock = block.getCompiledBlock();
+        assertNotNull(compiledBlock);
+
+        MemoryUnit interpreted = new MemoryUnit();
+        int pc = 0;
+        for (int index = 0; index < block.getLength(); index++) {
+            pc = block.execute(index, interpreted);
+        }
+
+        assertEquals(pc, compiledBlock.execute(memoryUnit));
+
+        InternalData expected = interpreted.getInternalData();
+        InternalData actual = memoryUnit.getInternalData();
+        for (int address = 0; address < expected.getSize(); address++) {
+            assertEquals(expected.read(address), actual.read(address));
+        }
+        assertEquals(0x02, actual.ACC.read());
+        assertTrue(actual.bitField.CY.getValue());
+    }
+
+    @Test
+    public void invalidatedBlockIsNotCompiled() {
+        BasicBlock block = cache.get(0x0200);
+        memoryUnit.getExternalCode().write(0x0201, 0x34);
+
+        compiler.compile(Collections.singletonList(block));
+
+        assertFalse(block.isValid());
+        assertNull(block.getCompiledBlock());
+    }
+
+}
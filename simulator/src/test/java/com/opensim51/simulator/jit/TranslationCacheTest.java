@@ -0,0 +1,74 @@
+package com.opensim51.simulator.jit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TranslationCacheTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+
+    @Before
+    public void setUp() {
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void storedClassFilesAreLoaded() throws IOException {
+        TranslationCache cache = new TranslationCache(directory, 1 << 20);
+        String imageHash = TranslationCache.hash(new byte[0x10000]);
+
+        assertTrue(cache.load(imageHash).isEmpty());
+
+        cache.store(imageHash, Collections.singletonMap(0x0123, new byte[]{1, 2, 3}));
+
+        Map<Integer, byte[]> classFiles = new TranslationCache(directory, 1 << 20).load(imageHash);
+        assertEquals(1, classFiles.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, classFiles.get(0x0123));
+    }
+
+    @Test
+    public void versionChangeDropsEverything() throws IOException {
+        new TranslationCache(directory, 1 << 20).store("image", Collections.singletonMap(0x0000, new byte[8]));
+        Files.write(directory.resolve("version"), "0/0".getBytes(StandardCharsets.UTF_8));
+
+        TranslationCache cache = new TranslationCache(directory, 1 << 20);
+
+        assertTrue(cache.load("image").isEmpty());
+        assertEquals(0, cache.getSize());
+        assertEquals(TranslationCache.getVersion(),
+                new String(Files.readAllBytes(directory.resolve("version")), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void leastRecentlyUsedImageIsEvicted() throws IOException {
+        TranslationCache cache = new TranslationCache(directory, 250);
+
+        cache.store("first", Collections.singletonMap(0x0000, new byte[100]));
+        cache.store("second", Collections.singletonMap(0x0000, new byte[100]));
+        Files.setLastModifiedTime(directory.resolve("first"), FileTime.fromMillis(1000));
+        Files.setLastModifiedTime(directory.resolve("second"), FileTime.fromMillis(2000));
+
+        cache.store("third", Collections.singletonMap(0x0000, new byte[100]));
+
+        assertFalse(Files.exists(directory.resolve("first")));
+        assertTrue(Files.exists(directory.resolve("second")));
+        assertTrue(Files.exists(directory.resolve("third")));
+        assertEquals(200, cache.getSize());
+    }
+
+}
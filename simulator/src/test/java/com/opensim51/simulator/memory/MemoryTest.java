@@ -0,0 +1,375 @@
+package com.opensim51.simulator.memory;
+
+import com.opensim51.simulator.memory.datatype.UInt16;
+import com.opensim51.simulator.memory.datatype.UInt8;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MemoryTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readWrite() {
+        ExternalData memory = new ExternalData();
+        assertEquals(0, memory.read(0x1234));
+
+        memory.write(0x1234, 0xff);
+        assertEquals(0xff, memory.read(0x1234));
+
+        // only the low byte of a written value is stored
+        memory.write(0xffff, 0x1ab);
+        assertEquals(0xab, memory.read(0xffff));
+    }
+
+    @Test
+    public void cellValueIsBackedByTheSameStorage() {
+        ExternalCode memory = new ExternalCode();
+        memory.setCellValue(UInt16.valueOf(0x100), UInt8.valueOf(0x80));
+        assertEquals(0x80, memory.read(0x100));
+
+        memory.write(0x101, 0x7f);
+        assertEquals(UInt8.valueOf(0x7f), memory.getCellValue(0x101));
+    }
+
+    @Test
+    public void bulkOperations() {
+        ExternalData memory = new ExternalData();
+        memory.write(0x10, new byte[]{1, 2, 3, 4, (byte) 0xff}, 1, 4);
+        memory.fill(0x20, 3, 0x1aa);
+        memory.copy(0x10, 0x12, 4);
+
+        byte[] cells = new byte[8];
+        memory.read(0x10, cells, 0, 6);
+        assertArrayEquals(new byte[]{2, 3, 2, 3, 4, (byte) 0xff, 0, 0}, cells);
+        assertEquals(0xaa, memory.read(0x22));
+        assertEquals(0x00, memory.read(0x23));
+
+        assertEquals(0xff, memory.asReadOnlyBuffer().get(0x15) & 0xff);
+        memory.asBuffer().put(0xffff, (byte) 0x42);
+        assertEquals(0x42, memory.read(0xffff));
+    }
+
+    @Test
+    public void overlappingCopiesAcrossPages() {
+        ExternalData memory = new ExternalData();
+        for (int address = 0x0f0; address < 0x330; address++) {
+            memory.write(address, address);
+        }
+        MemoryUnit unit = new MemoryUnit();
+        unit.getExternalData().forkFrom(memory);
+
+        memory.copy(0x0f0, 0x1f8, 0x130);
+        assertEquals(0xf0, memory.read(0x1f8));
+        assertEquals(0x1f, memory.read(0x327));
+        memory.copy(0x200, 0x100, 0x128);
+        assertEquals(0xf8, memory.read(0x100));
+        assertEquals(0x1f, memory.read(0x227));
+        assertEquals(0xf7, memory.read(0x1ff));
+        assertEquals(0x01, unit.getExternalData().read(0x201));
+    }
+
+    @Test
+    public void overlappingCopiesThroughTheRegisters() {
+        InternalData data = new InternalData();
+        for (int address = 0x78; address < 0x88; address++) {
+            data.write(address, address);
+        }
+
+        data.copy(0x78, 0x7c, 8);
+        assertEquals(0x78, data.read(0x7c));
+        assertEquals(0x7f, data.read(0x83));
+        data.copy(0x7c, 0x7a, 8);
+        assertEquals(0x78, data.read(0x7a));
+        assertEquals(0x7f, data.read(0x81));
+    }
+
+    @Test
+    public void bulkWritesReachTheListeners() {
+        ExternalCode code = new ExternalCode();
+        List<Integer> written = new ArrayList<>();
+        code.setWriteListener((address, value) -> written.add(address << 8 | value));
+        code.write(0x100, new byte[]{0x12, 0x34}, 0, 2);
+        assertEquals(Arrays.asList(0x10012, 0x10134), written);
+
+        InternalData data = new InternalData();
+        data.fill(0x70, 0x70, 0x18);
+        assertEquals(0x18, data.getRegisterBase());
+        assertEquals(0x18, data.PSW.read());
+        assertEquals(0x18, data.R0.getAddress());
+    }
+
+    @Test
+    public void forksShareUnwrittenPages() {
+        MemoryUnit parent = new MemoryUnit();
+        parent.getExternalData().write(0x1234, 0x11);
+        parent.getInternalData().PSW.write(0x10);
+
+        MemoryUnit child = parent.fork();
+        assertEquals(0x11, child.getExternalData().read(0x1234));
+        assertEquals(0x10, child.getInternalData().getRegisterBase());
+
+        child.getExternalData().write(0x1234, 0x22);
+        parent.getExternalData().write(0x1235, 0x33);
+        MemoryUnit grandchild = child.fork();
+        grandchild.getExternalData().fill(0x1200, 0x100, 0x44);
+
+        assertEquals(0x11, parent.getExternalData().read(0x1234));
+        assertEquals(0x33, parent.getExternalData().read(0x1235));
+        assertEquals(0x22, child.getExternalData().read(0x1234));
+        assertEquals(0x00, child.getExternalData().read(0x1235));
+        assertEquals(0x44, grandchild.getExternalData().read(0x1234));
+        assertEquals(0x00, new ExternalData().read(0x1234));
+    }
+
+    @Test
+    public void sharedMappingIsCopiedOnWrite() throws IOException {
+        byte[] image = new byte[0x10000];
+        image[0x0000] = 0x74;
+        image[0xffff] = 0x12;
+        Path file = folder.newFile().toPath();
+        Files.write(file, image);
+
+        ExternalCode first = new ExternalCode();
+        ExternalCode second = new ExternalCode();
+        List<Integer> written = new ArrayList<>();
+        first.setWriteListener((address, value) -> written.add(address));
+        first.mapShared(file);
+        second.mapShared(file);
+
+        assertTrue(first.isMapped());
+        assertEquals(0x10000, written.size());
+        assertEquals(0x74, first.read(0x0000));
+        assertEquals(0x12, second.read(0xffff));
+
+        first.write(0x0000, 0x00);
+        assertFalse(first.isMapped());
+        assertEquals(0x00, first.read(0x0000));
+        assertEquals(0x12, first.read(0xffff));
+        assertEquals(0x74, second.read(0x0000));
+        assertArrayEquals(image, Files.readAllBytes(file));
+    }
+
+    @Test
+    public void peeksFromOtherThreadsSurviveADetach() throws Exception {
+        byte[] image = new byte[0x10000];
+        Arrays.fill(image, (byte) 0x5a);
+        Path file = folder.newFile().toPath();
+        Files.write(file, image);
+
+        ExternalData memory = new ExternalData();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread reader = new Thread(() -> {
+            try {
+                while (running.get()) {
+                    if (memory.peek(0xff00) != 0x5a) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            } catch (RuntimeException e) {
+                mismatches.incrementAndGet();
+            }
+        });
+
+        memory.mapShared(file);
+        reader.start();
+        try {
+            for (int round = 0; round < 200; round++) {
+                memory.mapShared(file);
+                memory.write(0x0000, 0x00);
+            }
+        } finally {
+            running.set(false);
+            reader.join();
+        }
+
+        assertFalse(memory.isMapped());
+        assertEquals(0, mismatches.get());
+    }
+
+    @Test
+    public void privateMappingLeavesTheFile() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[0x10000]);
+
+        ExternalData memory = new ExternalData();
+        memory.mapPrivate(file);
+        memory.write(0x1234, 0x56);
+        memory.fill(0x2000, 0x10, 0x78);
+
+        assertTrue(memory.isMapped());
+        assertEquals(0x56, memory.read(0x1234));
+        assertEquals(0x78, memory.read(0x200f));
+        assertArrayEquals(new byte[0x10000], Files.readAllBytes(file));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mappedImageHasTheMemorySize() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[0x100]);
+        new ExternalCode().mapShared(file);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulkOutOfRange() {
+        new ExternalData().fill(0xfff0, 0x11, 0);
+    }
+
+    @Test
+    public void watchpointsReportAccesses() {
+        ExternalData memory = new ExternalData();
+        List<String> accesses = new ArrayList<>();
+        memory.setWatchListener((address, value, write) ->
+                accesses.add(String.format("%s %04x=%02x", write ? "write" : "read", address, value)));
+
+        memory.setWatchpoint(0x8000, Memory.WATCH_WRITE);
+        memory.setWatchpoint(0x8001, Memory.WATCH_READ | Memory.WATCH_WRITE);
+        memory.write(0x8000, 0x11);
+        memory.read(0x8000);
+        memory.fill(0x7fff, 3, 0x22);
+        memory.read(0x8001, new byte[1], 0, 1);
+        memory.peek(0x8001);
+
+        assertEquals(Memory.WATCH_WRITE, memory.getWatchpoint(0x8000));
+        assertEquals("[write 8000=11, write 8000=22, write 8001=22, read 8001=22]", accesses.toString());
+
+        memory.clearWatchpoints();
+        memory.write(0x8000, 0x33);
+        assertFalse(memory.hasWatchpoints());
+        assertEquals(4, accesses.size());
+    }
+
+    @Test
+    public void bulkWritesAreNoWatchedReads() {
+        List<String> accesses = new ArrayList<>();
+        WatchListener watchListener = (address, value, write) ->
+                accesses.add(String.format("%s %04x=%02x", write ? "write" : "read", address, value));
+
+        ExternalCode code = new ExternalCode();
+        code.setWriteListener((address, value) -> { });
+        code.setWatchListener(watchListener);
+        code.setWatchpoint(0x100, Memory.WATCH_READ);
+        code.fill(0x100, 2, 0x12);
+
+        InternalData data = new InternalData();
+        data.setWatchListener(watchListener);
+        data.setWatchpoint(0x90, Memory.WATCH_READ | Memory.WATCH_WRITE);
+        data.fill(0x80, 0x20, 0x34);
+
+        assertEquals("[write 0090=34]", accesses.toString());
+    }
+
+    @Test
+    public void sfrWriteListeners() {
+        InternalData memory = new InternalData();
+        List<String> writes = new ArrayList<>();
+        WriteListener first = (address, value) -> writes.add(String.format("first %02x=%02x", address, value));
+        WriteListener second = (address, value) -> writes.add(String.format("second %02x=%02x", address, value));
+
+        memory.addWriteListener(0x90, first);
+        memory.addWriteListener(0x90, second);
+        memory.P1.setBitValue(0, false);
+        memory.write(0x10, 0x55);
+        memory.removeWriteListener(0x90, first);
+        memory.write(0x90, 0x1ab);
+
+        assertEquals("[first 90=fe, second 90=fe, second 90=ab]", writes.toString());
+    }
+
+    @Test
+    public void accessListenerRunsOnReadsAndWrites() {
+        InternalData memory = new InternalData();
+        List<Integer> accesses = new ArrayList<>();
+        memory.setAccessListener(0x8a, address -> {
+            accesses.add(address);
+            return 0x20;
+        });
+
+        memory.TL0.write(0x10);
+        assertEquals(0x20, memory.TL0.read());
+        assertEquals(0x10, memory.peek(0x8a));
+        memory.TH0.read();
+        memory.setAccessListener(0x8a, null);
+        assertEquals(0x10, memory.TL0.read());
+
+        assertEquals("[138, 138]", accesses.toString());
+    }
+
+    @Test
+    public void registersFollowTheSelectedBank() {
+        InternalData memory = new InternalData();
+        memory.R7.write(0x11);
+
+        memory.bitField.RS1.setBit();
+        memory.bitField.RS0.setBit();
+        memory.R7.write(0x22);
+        assertEquals(0x1f, memory.R7.getAddress());
+        assertEquals(0x22, memory.R7.peek());
+        assertEquals(0x22, memory.readRegister(7));
+
+        memory.PSW.write(0x08);
+        assertEquals(0x08, memory.getRegisterBase());
+        assertEquals(0x00, memory.R7.read());
+
+        memory.PSW.write(0x00);
+        assertEquals(0x11, memory.R7.read());
+        assertEquals(0x22, memory.read(0x1f));
+        assertEquals(0x07, memory.R7.getAddress());
+    }
+
+    @Test
+    public void bitAddresses() {
+        InternalData memory = new InternalData();
+        InternalData.BitField bits = memory.bitField;
+
+        bits.setBitValue(0x00, true);
+        bits.setBitValue(0x7f, true);
+        assertEquals(0x01, memory.read(0x20));
+        assertEquals(0x80, memory.read(0x2f));
+
+        bits.toggleBit(0x97);
+        assertEquals(0x7f, memory.P1.read());
+        assertFalse(bits.getBitValue(0x97));
+        assertTrue(memory.P1.getBit(6).getValue());
+
+        bits.getBit(0xd7).setBit();
+        assertTrue(memory.bitField.CY.getValue());
+        assertEquals(0x80, memory.PSW.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bitAddressOutOfRange() {
+        new InternalData().bitField.getBitValue(0x100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void listenerOutsideSfrs() {
+        new InternalData().addWriteListener(0x7f, (address, value) -> {
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readOutOfRange() {
+        new InternalData().read(0x100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void writeOutOfRange() {
+        new ExternalData().write(-1, 0);
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.opensim51.simulator.replay;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InputLogTest {
+
+    @Test
+    public void changesKeepTheirOrder() {
+        InputLog log = new InputLog("code", "state");
+        log.add(10, 0xb0, 0x1fb);
+        log.add(10, 0x90, 0x00);
+        log.add(12, 0xb0, 0xff);
+
+        assertEquals(3, log.size());
+        assertEquals(0xfb, log.getValue(0));
+        assertEquals(0x90, log.getAddress(1));
+        assertEquals(12, log.getCycle(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void changesDoNotGoBackInTime() {
+        InputLog log = new InputLog("code", "state");
+        log.add(10, 0xb0, 0xfb);
+        log.add(9, 0xb0, 0xff);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.opensim51.simulator.sys;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClockTest {
+
+    @Test
+    public void classicCoreTakesOneMicrosecondPerCycleAt12MHz() {
+        Clock clock = new Clock(12_000_000, 12);
+
+        assertEquals(1_000, clock.toNanos(1));
+        assertEquals(1.0, clock.toSeconds(1_000_000), 1e-12);
+    }
+
+    @Test
+    public void fasterDerivatives() {
+        assertEquals(500, new Clock(12_000_000, 6).toNanos(1));
+        assertEquals(30, new Clock(33_000_000, 1).toNanos(1));
+        assertEquals(30_303, new Clock(33_000_000, 1).toNanos(1_000));
+    }
+
+    @Test
+    public void longRunsDoNotOverflow() {
+        assertEquals(1_000_000_000_000_000L, new Clock(12_000_000, 12).toNanos(1_000_000_000_000L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void clocksPerCycleMustBePositive() {
+        new Clock(12_000_000, 0);
+    }
+
+}
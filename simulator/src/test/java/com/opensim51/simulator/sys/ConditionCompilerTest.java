@@ -0,0 +1,58 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.MemoryUnit;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConditionCompilerTest {
+
+    private final MemoryUnit memoryUnit = new MemoryUnit();
+
+    @Test
+    public void registersAndOperators() {
+        InternalData data = memoryUnit.getInternalData();
+        data.ACC.write(0x3f);
+        data.R7.write(1);
+
+        assertTrue(isMet("ACC == 0x3F && R7 < 2"));
+        assertTrue(isMet("a == 3Fh"));
+        assertFalse(isMet("ACC == 0x3F && !(R7 < 2)"));
+        assertTrue(isMet("ACC.0 && !ACC.7 || CY"));
+        assertTrue(isMet("(ACC & 0x0f) + 1 == 16"));
+        assertTrue(isMet("-R7 < 0 && ~R7 == -2 && (1 ^ 3) == 2 && (4 | 1) >= 5"));
+
+        // R7 follows the selected bank
+        data.PSW.write(0x18);
+        assertTrue(isMet("R7 == 0 && RS0 && RS1 && PSW != 0"));
+    }
+
+    @Test
+    public void memoriesAndProgramCounter() {
+        memoryUnit.getInternalData().write(0x30, 0x12);
+        memoryUnit.getExternalData().write(0x8000, 0x34);
+        memoryUnit.getExternalCode().write(0x0100, 0x56);
+        memoryUnit.getInternalData().setDptr(0x8000);
+
+        assertTrue(isMet("DATA[0x30] == 0x12 && XDATA[DPTR] == 0x34 && CODE[0x100] == 0x56"));
+        assertTrue(isMet("XDATA[0x7fff + 1] == 0x34 && IDATA[48] == 18"));
+        assertTrue(ConditionCompiler.compile("PC == 0x0123").isMet(memoryUnit, 0x0123));
+        assertFalse(ConditionCompiler.compile("PC == 0x0123").isMet(memoryUnit, 0x0124));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownName() {
+        ConditionCompiler.compile("ACC == FOO");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void incompleteExpression() {
+        ConditionCompiler.compile("(ACC == 1");
+    }
+
+    private boolean isMet(String expression) {
+        return ConditionCompiler.compile(expression).isMet(memoryUnit, 0);
+    }
+
+}
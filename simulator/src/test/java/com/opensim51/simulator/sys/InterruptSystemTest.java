@@ -0,0 +1,66 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.memory.InternalData;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InterruptSystemTest {
+
+    private InternalData data;
+    private InterruptSystem interruptSystem;
+
+    @Before
+    public void setUp() {
+        data = new InternalData();
+        interruptSystem = new InterruptSystem(data);
+    }
+
+    @Test
+    public void nothingWithoutEa() {
+        data.IE.write(0x1f);
+        data.bitField.TF0.setBit();
+        data.bitField.RI.setBit();
+
+        assertEquals(0x1234, interruptSystem.getInterruptServiceRoutine(0x1234));
+        assertTrue(data.bitField.TF0.getValue());
+    }
+
+    @Test
+    public void lowestSourceWinsAndIsCleared() {
+        data.IE.write(0x9a);
+        data.bitField.TF1.setBit();
+        data.bitField.TF0.setBit();
+
+        assertEquals(0x000b, interruptSystem.getInterruptServiceRoutine(0x1234));
+        assertFalse(data.bitField.TF0.getValue());
+        assertEquals(0x1234, data.stack.popByte() << 8 | data.stack.popByte());
+
+        // the pending timer 1 waits for the return from the routine in progress
+        assertEquals(0x000b, interruptSystem.getInterruptServiceRoutine(0x000b));
+        interruptSystem.returnFromInterrupt();
+        assertEquals(0x001b, interruptSystem.getInterruptServiceRoutine(0x0100));
+    }
+
+    @Test
+    public void highPriorityPreemptsLowPriority() {
+        data.IE.write(0x92);
+        data.bitField.PT0.setBit();
+        data.bitField.TI.setBit();
+
+        assertEquals(0x0023, interruptSystem.getInterruptServiceRoutine(0x0100));
+
+        // TI is not cleared by hardware, it stays pending while its own routine runs
+        data.bitField.TF0.setBit();
+        assertEquals(0x000b, interruptSystem.getInterruptServiceRoutine(0x0023));
+        assertEquals(0x0010, interruptSystem.getInterruptServiceRoutine(0x0010));
+
+        // the return from the nested routine goes back to the low priority level
+        interruptSystem.returnFromInterrupt();
+        assertEquals(0x0024, interruptSystem.getInterruptServiceRoutine(0x0024));
+        interruptSystem.returnFromInterrupt();
+        assertEquals(0x0023, interruptSystem.getInterruptServiceRoutine(0x0100));
+    }
+
+}
@@ -0,0 +1,660 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.ExecutionListener;
+import com.opensim51.simulator.ExecutionListenerAdapter;
+import com.opensim51.simulator.instruction.BasicBlock;
+import com.opensim51.simulator.jit.BlockCompiler;
+import com.opensim51.simulator.jit.TranslationCache;
+import com.opensim51.simulator.memory.ExternalCode;
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.Memory;
+import com.opensim51.simulator.memory.MemoryUnit;
+import com.opensim51.simulator.memory.datatype.UInt16;
+import com.opensim51.simulator.replay.InputLog;
+import com.opensim51.simulator.trace.TraceFormat;
+import com.opensim51.simulator.trace.TraceReader;
+import com.opensim51.simulator.trace.TraceRecord;
+import com.opensim51.simulator.trace.TraceRing;
+import com.opensim51.simulator.trace.TraceWriter;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ProcessingUnitTest {
+
+    private final ExecutionListener listener = new ExecutionListenerAdapter(false) {
+        @Override
+        public void process(UInt16 programCounter) {
+        }
+    };
+
+    private static final int[] NESTED_LOOPS = {
+            0x7e, 0x04,     // MOV  R6, #4
+            0x7f, 0x00,     // MOV  R7, #0
+            0xe8,           // MOV  A, R0
+            0x24, 0x03,     // ADD  A, #3
+            0xf8,           // MOV  R0, A
+            0x05, 0x30,     // INC  30h
+            0xdf, 0xf8,     // DJNZ R7, 0004h
+            0xde, 0xf4,     // DJNZ R6, 0002h
+            0x80, 0xfe};    // SJMP $
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private MemoryUnit memoryUnit;
+    private ProcessingUnit processingUnit;
+
+    @Before
+    public void setUp() {
+        memoryUnit = new MemoryUnit();
+        processingUnit = new ProcessingUnit(memoryUnit);
+    }
+
+    @Test
+    public void registerLoop() {
+        burn(0x0000,
+                0x7f, 0x03,     // MOV  R7, #3
+                0xdf, 0xfe,     // DJNZ R7, $
+                0x74, 0x07);    // MOV  A, #7
+
+        for (int i = 0; i < 5; i++) {
+            processingUnit.step(listener);
+        }
+
+        InternalData data = memoryUnit.getInternalData();
+        assertEquals(0x00, data.R7.read());
+        assertEquals(0x07, data.ACC.read());
+        assertEquals(0x0006, processingUnit.getPc());
+        assertEquals(UInt16.valueOf(0x0006), processingUnit.getProgramCounter());
+    }
+
+    @Test
+    public void machineCyclesAndElapsedTime() {
+        burn(0x0000,
+                0x7f, 0x03,     // MOV  R7, #3
+                0xdf, 0xfe,     // DJNZ R7, $
+                0xa4);          // MUL  AB
+
+        for (int i = 0; i < 5; i++) {
+            processingUnit.step(listener);
+        }
+
+        assertEquals(11, processingUnit.getCycles());
+        assertEquals(11_000, processingUnit.getElapsedNanos());
+
+        processingUnit.setClock(new Clock(24_000_000, 6));
+        assertEquals(2_750, processingUnit.getElapsedNanos());
+    }
+
+    @Test
+    public void externalInterruptFlags() {
+        InternalData data = memoryUnit.getInternalData();
+
+        // level triggered, the flag follows the pin
+        data.P3.setBitValue(2, false);
+        assertTrue(data.bitField.IE0.getValue());
+        data.P3.setBitValue(2, true);
+        assertFalse(data.bitField.IE0.getValue());
+
+        // edge triggered, the flag is set by a falling edge only
+        data.bitField.IT1.setBit();
+        data.P3.setBitValue(3, false);
+        assertTrue(data.bitField.IE1.getValue());
+        data.bitField.IE1.clearBit();
+        data.P3.setBitValue(3, false);
+        assertFalse(data.bitField.IE1.getValue());
+        assertTrue(data.bitField.IT1.getValue());
+    }
+
+    @Test
+    public void slicesEndAtTheirBounds() {
+        burn(0x0000, NESTED_LOOPS);
+
+        RunStatus status = processingUnit.runSlice(3, Long.MAX_VALUE);
+        assertEquals(StopReason.SLICE_ENDED, status.getStopReason());
+        assertEquals(0x0005, status.getPc());
+        assertEquals(3, status.getCycles());
+
+        // the slice ends after the two-cycle DJNZ
+        status = processingUnit.runSlice(Long.MAX_VALUE, 5);
+        assertEquals(0x0004, status.getPc());
+        assertEquals(8, status.getCycles());
+        assertEquals(0x01, memoryUnit.getInternalData().read(0x30));
+
+        List<Integer> traced = new ArrayList<>();
+        processingUnit.setTracer(new ExecutionListenerAdapter(true) {
+            @Override
+            public void process(UInt16 programCounter) {
+                traced.add(programCounter.toInt());
+            }
+        });
+        processingUnit.runSlice(3, Long.MAX_VALUE);
+        assertEquals(Arrays.asList(0x0005, 0x0007, 0x0008), traced);
+    }
+
+    @Test
+    public void cancelEndsTheRunningSliceOnly() {
+        burn(0x0000, NESTED_LOOPS);
+
+        // a cancel while no slice runs is left without effect
+        processingUnit.cancel();
+        RunStatus status = processingUnit.runSlice(10, Long.MAX_VALUE);
+        assertEquals(StopReason.SLICE_ENDED, status.getStopReason());
+        assertTrue(status.getCycles() >= 10);
+
+        processingUnit.setTracer(new ExecutionListenerAdapter(true) {
+            @Override
+            public void process(UInt16 programCounter) {
+                processingUnit.cancel();
+            }
+        });
+        long cycles = processingUnit.getCycles();
+        status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.CANCELLED, status.getStopReason());
+        assertTrue(status.getCycles() - cycles <= 2);
+
+        processingUnit.setTracer(null);
+        status = processingUnit.runSlice(10, Long.MAX_VALUE);
+        assertEquals(StopReason.SLICE_ENDED, status.getStopReason());
+    }
+
+    @Test
+    public void traceRingKeepsTheLastInstructions() {
+        burn(0x0000, NESTED_LOOPS);
+        TraceRing traceRing = new TraceRing(4);
+        processingUnit.setTraceRing(traceRing);
+
+        processingUnit.runSlice(5, Long.MAX_VALUE);
+        List<TraceRecord> records = traceRing.snapshot(8);
+
+        assertEquals(5, traceRing.getCount());
+        assertEquals(3, records.size());
+        assertEquals(0x0004, records.get(0).getPc());
+        assertEquals(0xe8, records.get(0).getOpcode());
+        assertEquals(3, records.get(0).getCycle());
+
+        TraceRecord add = records.get(1);
+        assertEquals(0x0005, add.getPc());
+        assertEquals(0x24, add.getOpcode());
+        assertEquals(0x03, add.getAcc());
+        assertEquals(0x00, add.getPsw());
+        assertEquals(memoryUnit.getInternalData().SP.read(), add.getSp());
+        assertEquals(0x0007, records.get(2).getPc());
+        assertEquals(5, records.get(2).getCycle());
+    }
+
+    @Test
+    public void traceFileHoldsEveryWrite() throws IOException {
+        burn(0x0000, NESTED_LOOPS);
+        Path file = folder.newFile().toPath();
+
+        try (TraceWriter traceWriter = new TraceWriter(file, 16)) {
+            processingUnit.setTraceWriter(traceWriter);
+            processingUnit.runSlice(200, Long.MAX_VALUE);
+            processingUnit.setTraceWriter(null);
+        }
+        memoryUnit.getInternalData().write(0x30, 0);
+
+        List<Integer> values = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(200, reader.getRecordCount());
+            assertEquals(processingUnit.getCycles(), reader.getLastCycle());
+
+            reader.findWrites(TraceFormat.INTERNAL_DATA, 0x30, (cycle, pc, value) -> {
+                assertEquals(0x0008, pc);
+                values.add(value);
+            });
+        }
+
+        assertEquals(39, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i + 1, (int) values.get(i));
+        }
+    }
+
+    @Test
+    public void recordedInputsAreReplayed() throws IOException {
+        burnInterruptCounter();
+        InputLog recorded = processingUnit.startRecording();
+
+        // falling edges on INT0 between slices, each one is counted by the interrupt service routine
+        for (int i = 0; i < 4; i++) {
+            processingUnit.runSlice(Long.MAX_VALUE, 100);
+            processingUnit.setInput(0xb0, 0xfb);
+            processingUnit.runSlice(Long.MAX_VALUE, 37);
+            processingUnit.setInput(0xb0, 0xff);
+        }
+        processingUnit.runSlice(Long.MAX_VALUE, 100);
+        processingUnit.stopRecording();
+
+        assertEquals(8, recorded.size());
+        assertEquals(4, memoryUnit.getInternalData().read(0x30));
+        long cycles = processingUnit.getCycles();
+        String stateHash = processingUnit.getStateHash();
+
+        Path file = folder.newFile().toPath();
+        recorded.save(file);
+        setUp();
+        burnInterruptCounter();
+        processingUnit.replay(InputLog.load(file));
+        processingUnit.runSlice(Long.MAX_VALUE, cycles);
+
+        assertEquals(cycles, processingUnit.getCycles());
+        assertEquals(stateHash, processingUnit.getStateHash());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void replayNeedsTheRecordedCode() {
+        burnInterruptCounter();
+        InputLog recorded = processingUnit.startRecording();
+
+        setUp();
+        processingUnit.replay(recorded);
+    }
+
+    @Test
+    public void stepBackRestoresEveryEarlierState() {
+        ProcessingUnit reference = new ProcessingUnit(new MemoryUnit());
+        List<String> hashes = runTimerInterrupts(reference, 300);
+        processingUnit.setHistory(new History(50, 1 << 20));
+        runTimerInterrupts(processingUnit, 300);
+        assertEquals(hashes.get(300), processingUnit.getStateHash());
+
+        // back over input changes, interrupts and timer overflows
+        for (int step = 299; step >= 90; step--) {
+            RunStatus status = processingUnit.stepBack();
+            assertEquals(StopReason.SLICE_ENDED, status.getStopReason());
+            assertEquals(hashes.get(step), processingUnit.getStateHash());
+        }
+
+        // the inputs after the state gone back to are forgotten with the rest of that future
+        processingUnit.runSlice(210, Long.MAX_VALUE);
+        assertNotEquals(hashes.get(300), processingUnit.getStateHash());
+        assertEquals(0, memoryUnit.getInternalData().read(0x32));
+    }
+
+    @Test
+    public void reverseContinueStopsAtEarlierBreakpoints() {
+        ProcessingUnit reference = new ProcessingUnit(new MemoryUnit());
+        List<String> hashes = runTimerInterrupts(reference, 0);
+        List<Integer> hits = new ArrayList<>();
+        for (int step = 0; step < 300; step++) {
+            if (reference.getPc() == 0x000b) {
+                hits.add(step);
+            }
+            reference.runSlice(1, Long.MAX_VALUE);
+            hashes.add(reference.getStateHash());
+        }
+
+        processingUnit.setHistory(new History(50, 1 << 20));
+        runTimerInterrupts(processingUnit, 0);
+        processingUnit.runSlice(300, Long.MAX_VALUE);
+        processingUnit.getBreakpoints().set(0x000b);
+
+        for (int hit = hits.size() - 1; hit >= 0; hit--) {
+            RunStatus status = processingUnit.reverseContinue();
+            assertEquals(StopReason.BREAKPOINT, status.getStopReason());
+            assertEquals(0x000b, status.getPc());
+            assertEquals(hashes.get(hits.get(hit)), processingUnit.getStateHash());
+        }
+
+        assertEquals(StopReason.HISTORY_START, processingUnit.reverseContinue().getStopReason());
+        assertEquals(hashes.get(0), processingUnit.getStateHash());
+    }
+
+    @Test
+    public void historyStaysWithinItsBudget() {
+        History history = new History(20, 32 * 1024);
+        processingUnit.setHistory(history);
+        burn(0x0000, NESTED_LOOPS);
+        processingUnit.runSlice(Long.MAX_VALUE, 2000);
+
+        assertTrue(history.getCost() <= history.getBudget());
+        assertTrue(history.getCheckpointCount() < 2000 / 20);
+        assertTrue(history.getStartCycle() > 0);
+
+        // nothing before the oldest checkpoint is kept
+        long start = history.getStartCycle();
+        RunStatus status;
+        do {
+            status = processingUnit.stepBack();
+        } while (status.getStopReason() != StopReason.HISTORY_START);
+        assertEquals(start, status.getCycles());
+    }
+
+    @Test
+    public void snapshotsRestoreTheWholeMachine() throws IOException {
+        runTimerInterrupts(processingUnit, 200);
+        Snapshot snapshot = processingUnit.snapshot();
+        String booted = processingUnit.getStateHash();
+        processingUnit.runSlice(100, Long.MAX_VALUE);
+        String finished = processingUnit.getStateHash();
+        Snapshot later = processingUnit.snapshot();
+
+        // the timer, the interrupt in progress and the memories continue as they were
+        processingUnit.restore(snapshot);
+        assertEquals(booted, processingUnit.getStateHash());
+
+        // the cycles between the two snapshots are not counted into the restored timer
+        processingUnit.restore(later);
+        assertEquals(finished, processingUnit.getStateHash());
+        processingUnit.restore(snapshot);
+        processingUnit.runSlice(100, Long.MAX_VALUE);
+        assertEquals(finished, processingUnit.getStateHash());
+
+        // only the pages that are not all zero are saved
+        Path file = folder.newFile().toPath();
+        snapshot.save(file);
+        assertTrue(file.toFile().length() < 3 * Memory.PAGE_SIZE);
+
+        setUp();
+        processingUnit.restore(Snapshot.load(file));
+        assertEquals(booted, processingUnit.getStateHash());
+        assertEquals(snapshot.getPc(), processingUnit.getPc());
+        processingUnit.runSlice(100, Long.MAX_VALUE);
+        assertEquals(finished, processingUnit.getStateHash());
+    }
+
+    @Test(expected = IOException.class)
+    public void snapshotsAreChecked() throws IOException {
+        Path file = folder.newFile().toPath();
+        byte[] blob = processingUnit.snapshot().toByteArray();
+        Files.write(file, Arrays.copyOf(blob, blob.length - 1));
+        Snapshot.load(file);
+    }
+
+    @Test
+    public void slicesStopAtBreakpoints() {
+        burn(0x0000, NESTED_LOOPS);
+        processingUnit.getBreakpoints().set(0x0008);
+
+        // the inner loop passes the breakpoint once per round
+        for (int round = 1; round <= 3; round++) {
+            RunStatus status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+            assertEquals(StopReason.BREAKPOINT, status.getStopReason());
+            assertEquals(0x0008, status.getPc());
+            assertEquals(round - 1, memoryUnit.getInternalData().read(0x30));
+        }
+
+        processingUnit.getBreakpoints().clear(0x0008);
+        processingUnit.getBreakpoints().set(0x000e);
+        RunStatus status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.BREAKPOINT, status.getStopReason());
+        assertEquals(0x000e, status.getPc());
+        assertEquals(0x00, memoryUnit.getInternalData().read(0x30));
+    }
+
+    @Test
+    public void tieredSlicesStopInsideTranslatedBlocks() {
+        BlockCompiler compiler = new BlockCompiler() {
+            @Override
+            public void submit(BasicBlock block) {
+                compile(Collections.singletonList(block));
+            }
+        };
+        Assume.assumeTrue(compiler.isAvailable());
+
+        processingUnit.setBlockCompiler(compiler);
+        processingUnit.setExecutionMode(ExecutionMode.TIERED);
+        burn(0x0000, NESTED_LOOPS);
+        processingUnit.runSlice(1000, Long.MAX_VALUE);
+
+        processingUnit.getBreakpoints().set(0x0007);
+        RunStatus status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.BREAKPOINT, status.getStopReason());
+        assertEquals(0x0007, status.getPc());
+    }
+
+    @Test
+    public void conditionalBreakpoints() {
+        burn(0x0000, NESTED_LOOPS);
+        Breakpoints breakpoints = processingUnit.getBreakpoints();
+        breakpoints.set(0x0008, ConditionCompiler.compile("DATA[0x30] == 5"));
+
+        RunStatus status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.BREAKPOINT, status.getStopReason());
+        assertEquals(0x0008, status.getPc());
+        assertEquals(0x12, memoryUnit.getInternalData().R0.read());
+
+        // a condition of its own stops the program wherever it holds
+        breakpoints.clearAll();
+        breakpoints.setCondition(ConditionCompiler.compile("R0 == 0x30"));
+        status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.BREAKPOINT, status.getStopReason());
+        assertEquals(0x0008, status.getPc());
+        assertEquals(0x0f, memoryUnit.getInternalData().read(0x30));
+    }
+
+    @Test
+    public void watchpoints() {
+        burn(0x0000,
+                0x90, 0x80, 0x00,   // MOV  DPTR, #8000h
+                0x74, 0x42,         // MOV  A, #42h
+                0xe5, 0x30,         // MOV  A, 30h
+                0xf0,               // MOVX @DPTR, A
+                0x80, 0xfe);        // SJMP $
+        memoryUnit.getExternalData().setWatchpoint(0x8000, Memory.WATCH_WRITE);
+        memoryUnit.getInternalData().setWatchpoint(0x30, Memory.WATCH_READ);
+
+        // the user interface looking at the memory from another thread does not stop the program
+        Thread viewer = new Thread(() -> memoryUnit.getInternalData().read(0x30));
+        viewer.start();
+
+        RunStatus status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.WATCHPOINT, status.getStopReason());
+        assertEquals(0x0007, status.getPc());
+        WatchpointHit hit = processingUnit.getWatchpointHit();
+        assertFalse(hit.isWrite());
+        assertEquals(0x30, hit.getAddress());
+        assertSame(memoryUnit.getInternalData(), hit.getMemory());
+
+        memoryUnit.getInternalData().setWatchpoint(0x30, 0);
+        status = processingUnit.runSlice(Long.MAX_VALUE, Long.MAX_VALUE);
+        assertEquals(StopReason.WATCHPOINT, status.getStopReason());
+        assertEquals(0x0008, status.getPc());
+        hit = processingUnit.getWatchpointHit();
+        assertTrue(hit.isWrite());
+        assertEquals(0x8000, hit.getAddress());
+        assertEquals(0x00, hit.getValue());
+
+        status = processingUnit.runSlice(100, Long.MAX_VALUE);
+        assertEquals(StopReason.SLICE_ENDED, status.getStopReason());
+        assertNull(processingUnit.getWatchpointHit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void breakpointOutOfRange() {
+        processingUnit.getBreakpoints().set(0x10000);
+    }
+
+    @Test
+    public void forkContinuesIndependently() {
+        burn(0x0000,
+                0x75, 0x89, 0x01,   // MOV  TMOD, #1
+                0xd2, 0x8c,         // SETB TR0
+                0xe5, 0x90,         // MOV  A, P1
+                0xf5, 0x30,         // MOV  30h, A
+                0x80, 0xfe);        // SJMP $
+
+        for (int i = 0; i < 2; i++) {
+            processingUnit.step(listener);
+        }
+
+        ProcessingUnit fork = processingUnit.fork();
+        InternalData forkData = fork.getMemoryUnit().getInternalData();
+        forkData.P1.write(0x5a);
+
+        for (int i = 0; i < 3; i++) {
+            processingUnit.step(listener);
+            fork.step(listener);
+        }
+
+        InternalData data = memoryUnit.getInternalData();
+        assertEquals(0xff, data.read(0x30));
+        assertEquals(0x5a, forkData.read(0x30));
+        assertEquals(0x0009, fork.getPc());
+        assertEquals(processingUnit.getCycles(), fork.getCycles());
+        assertEquals(data.TL0.read(), forkData.TL0.read());
+        assertEquals(4, forkData.TL0.read());
+    }
+
+    @Test
+    public void patchedCodeIsExecuted() {
+        burn(0x0000,
+                0x74, 0x01,     // MOV  A, #1
+                0x04,           // INC  A
+                0x80, 0xfb);    // SJMP 0000h
+
+        for (int i = 0; i < 3; i++) {
+            processingUnit.step(listener);
+        }
+        assertEquals(0x02, memoryUnit.getInternalData().ACC.read());
+
+        burn(0x0001, 0x40);
+        processingUnit.step(listener);
+        assertEquals(0x40, memoryUnit.getInternalData().ACC.read());
+    }
+
+    @Test
+    public void tieredMatchesInterpreted() {
+        BlockCompiler compiler = new BlockCompiler() {
+            @Override
+            public void submit(BasicBlock block) {
+                compile(Collections.singletonList(block));
+            }
+        };
+        Assume.assumeTrue(compiler.isAvailable());
+
+        burn(0x0000, NESTED_LOOPS);
+        runUntil(0x000e);
+        InternalData interpreted = memoryUnit.getInternalData();
+
+        setUp();
+        processingUnit.setBlockCompiler(compiler);
+        processingUnit.setExecutionMode(ExecutionMode.TIERED);
+        burn(0x0000, NESTED_LOOPS);
+        runUntil(0x000e);
+        InternalData tiered = memoryUnit.getInternalData();
+
+        for (int address = 0; address < interpreted.getSize(); address++) {
+            assertEquals(interpreted.read(address), tiered.read(address));
+        }
+        assertEquals(0x00, tiered.read(0x30));
+        assertEquals(0x00, tiered.R0.read());
+    }
+
+    @Test
+    public void savedTranslationsAreReused() throws IOException {
+        Assume.assumeTrue(BlockCompiler.getDefault().isAvailable());
+        TranslationCache translationCache = new TranslationCache(folder.getRoot().toPath(), 1 << 20);
+
+        processingUnit.setBlockCompiler(new BlockCompiler() {
+            @Override
+            public void submit(BasicBlock block) {
+                compile(Collections.singletonList(block));
+            }
+        });
+        processingUnit.setTranslationCache(translationCache);
+        processingUnit.setExecutionMode(ExecutionMode.TIERED);
+        burn(0x0000, NESTED_LOOPS);
+        runUntil(0x000e);
+        assertTrue(translationCache.getSize() > 0);
+
+        AtomicInteger submitted = new AtomicInteger();
+        setUp();
+        processingUnit.setBlockCompiler(new BlockCompiler() {
+            @Override
+            public void submit(BasicBlock block) {
+                submitted.incrementAndGet();
+            }
+        });
+        processingUnit.setTranslationCache(translationCache);
+        processingUnit.setExecutionMode(ExecutionMode.TIERED);
+        burn(0x0000, NESTED_LOOPS);
+        runUntil(0x000e);
+
+        assertEquals(0, submitted.get());
+        assertEquals(0x00, memoryUnit.getInternalData().read(0x30));
+    }
+
+    private void runUntil(int address) {
+        processingUnit.run(new ExecutionListenerAdapter(true) {
+            @Override
+            public void process(UInt16 programCounter) {
+                if (programCounter.toInt() == address) {
+                    cancel();
+                }
+            }
+        });
+        assertEquals(address, processingUnit.getPc());
+    }
+
+    // the timer interrupts every 16 cycles and INT0 on a falling edge, returns the state hash of every instruction
+    private static List<String> runTimerInterrupts(ProcessingUnit unit, int instructions) {
+        int[][] program = {
+                {0x0000, 0x02, 0x00, 0x30},     // LJMP 0030h
+                {0x0003, 0x05, 0x32, 0x32},     // INC  32h, RETI
+                {0x000b, 0x05, 0x30, 0x32},     // INC  30h, RETI
+                {0x0030,
+                        0x75, 0x89, 0x02,       // MOV  TMOD, #02h
+                        0x75, 0x8c, 0xf0,       // MOV  TH0, #F0h
+                        0xd2, 0x8c,             // SETB TR0
+                        0xd2, 0x88,             // SETB IT0
+                        0x43, 0xa8, 0x83,       // ORL  IE, #83h
+                        0x05, 0x31,             // INC  31h
+                        0x80, 0xfc}};           // SJMP 003Dh
+        ExternalCode code = unit.getMemoryUnit().getExternalCode();
+        for (int[] part : program) {
+            for (int index = 1; index < part.length; index++) {
+                code.write(part[0] + index - 1, part[index]);
+            }
+        }
+
+        List<String> hashes = new ArrayList<>();
+        for (int step = 0; step < instructions; step++) {
+            if (step == 100) {
+                unit.setInput(0xb0, 0xfb);
+            } else if (step == 140) {
+                unit.setInput(0xb0, 0xff);
+            }
+            hashes.add(unit.getStateHash());
+            unit.runSlice(1, Long.MAX_VALUE);
+        }
+        hashes.add(unit.getStateHash());
+        return hashes;
+    }
+
+    private void burnInterruptCounter() {
+        burn(0x0000,
+                0x02, 0x00, 0x30,   // LJMP 0030h
+                0x05, 0x30,         // INC  30h
+                0x32);              // RETI
+        burn(0x0030,
+                0xd2, 0x88,         // SETB IT0
+                0xd2, 0xa8,         // SETB EX0
+                0xd2, 0xaf,         // SETB EA
+                0x80, 0xfe);        // SJMP $
+    }
+
+    private void burn(int address, int... bytes) {
+        ExternalCode code = memoryUnit.getExternalCode();
+        for (int b : bytes) {
+            code.write(address++, b);
+        }
+    }
+
+}
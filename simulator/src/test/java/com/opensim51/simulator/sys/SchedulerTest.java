@@ -0,0 +1,47 @@
+package com.opensim51.simulator.sys;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SchedulerTest {
+
+    private final Scheduler scheduler = new Scheduler();
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    public void eventsFireInCycleOrder() {
+        scheduler.schedule(new Scheduler.Event(() -> fired.add("b")), 10);
+        scheduler.schedule(new Scheduler.Event(() -> fired.add("a")), 4);
+
+        scheduler.advance(3);
+        assertTrue(fired.isEmpty());
+        assertEquals(4, scheduler.getNextCycle());
+
+        scheduler.advance(8);
+        assertEquals(11, scheduler.getCycle());
+        assertEquals("[a, b]", fired.toString());
+        assertEquals(Long.MAX_VALUE, scheduler.getNextCycle());
+    }
+
+    @Test
+    public void rescheduleAndCancel() {
+        Scheduler.Event event = new Scheduler.Event(() -> fired.add("event"));
+        scheduler.schedule(event, 2);
+        scheduler.schedule(event, 6);
+
+        scheduler.advance(5);
+        assertTrue(fired.isEmpty());
+        assertTrue(event.isScheduled());
+        assertEquals(6, event.getCycle());
+
+        scheduler.cancel(event);
+        scheduler.advance(5);
+        assertTrue(fired.isEmpty());
+        assertFalse(event.isScheduled());
+    }
+
+}
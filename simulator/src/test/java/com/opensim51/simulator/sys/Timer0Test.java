@@ -0,0 +1,125 @@
+package com.opensim51.simulator.sys;
+
+import com.opensim51.simulator.ExecutionListener;
+import com.opensim51.simulator.ExecutionListenerAdapter;
+import com.opensim51.simulator.memory.InternalData;
+import com.opensim51.simulator.memory.MemoryUnit;
+import com.opensim51.simulator.memory.datatype.UInt16;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class Timer0Test {
+
+    private final ExecutionListener listener = new ExecutionListenerAdapter(false) {
+        @Override
+        public void process(UInt16 programCounter) {
+        }
+    };
+
+    private ProcessingUnit processingUnit;
+    private InternalData data;
+
+    // the code memory is all NOPs, one machine cycle each
+    @Before
+    public void setUp() {
+        MemoryUnit memoryUnit = new MemoryUnit();
+        processingUnit = new ProcessingUnit(memoryUnit);
+        data = memoryUnit.getInternalData();
+    }
+
+    @Test
+    public void mode1OverflowSetsTf0() {
+        data.TMOD.write(0x01);
+        data.TH0.write(0xff);
+        data.TL0.write(0xf0);
+        data.bitField.TR0.setBit();
+
+        run(15);
+        assertEquals(0xff, data.TL0.read());
+        assertFalse(data.bitField.TF0.getValue());
+
+        run(1);
+        assertTrue(data.bitField.TF0.getValue());
+        assertFalse(data.bitField.TF1.getValue());
+        assertEquals(0x00, data.TH0.read());
+        assertEquals(0x00, data.TL0.read());
+    }
+
+    @Test
+    public void mode2ReloadsFromTh0() {
+        data.TMOD.write(0x02);
+        data.TH0.write(0xf0);
+        data.TL0.write(0xfe);
+        data.bitField.TR0.setBit();
+
+        run(2);
+        assertTrue(data.bitField.TF0.getValue());
+        assertEquals(0xf0, data.TL0.read());
+
+        data.bitField.TF0.clearBit();
+        run(15);
+        assertFalse(data.bitField.TF0.getValue());
+        run(1);
+        assertTrue(data.bitField.TF0.getValue());
+        assertEquals(0xf0, data.TL0.read());
+    }
+
+    @Test
+    public void writingTl0Reschedules() {
+        data.TMOD.write(0x01);
+        data.bitField.TR0.setBit();
+
+        run(100);
+        assertEquals(100, data.TL0.read());
+
+        data.TH0.write(0xff);
+        data.TL0.write(0xfd);
+        run(2);
+        assertFalse(data.bitField.TF0.getValue());
+        run(1);
+        assertTrue(data.bitField.TF0.getValue());
+    }
+
+    @Test
+    public void gateAndCounterFollowPins() {
+        data.TMOD.write(0x0d);
+        data.bitField.TR0.setBit();
+
+        run(10);
+        assertEquals(0x00, data.TL0.read());
+
+        // falling edges on T0 are counted only while INT0 is high
+        for (int i = 0; i < 3; i++) {
+            data.P3.setBitValue(4, false);
+            data.P3.setBitValue(4, true);
+        }
+        data.P3.setBitValue(2, false);
+        data.P3.setBitValue(4, false);
+        data.P3.setBitValue(4, true);
+
+        assertEquals(0x03, data.TL0.read());
+    }
+
+    @Test
+    public void overflowRaisesInterrupt() {
+        data.TMOD.write(0x02);
+        data.TL0.write(0xfc);
+        data.IE.write(0x82);
+        data.bitField.TR0.setBit();
+
+        run(3);
+        assertEquals(0x0003, processingUnit.getPc());
+        run(1);
+        assertEquals(0x000b, processingUnit.getPc());
+        assertFalse(data.bitField.TF0.getValue());
+    }
+
+    private void run(int instructions) {
+        for (int i = 0; i < instructions; i++) {
+            processingUnit.step(listener);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.opensim51.simulator.trace;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TraceFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsAreReadBack() throws IOException {
+        Path file = write(100);
+
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(100, reader.getRecordCount());
+            assertEquals(1000 + 99 * 3, reader.getLastCycle());
+
+            TraceCursor cursor = reader.cursor();
+            for (int i = 0; i < 100; i++) {
+                assertTrue(cursor.next());
+                assertEquals(pc(i), cursor.getPc());
+                assertEquals(1000 + i * 3, cursor.getCycle());
+                assertEquals(i % 10, cursor.getWriteCount());
+            }
+            assertFalse(cursor.next());
+
+            // a record with more writes than fit next to its cycles
+            cursor = reader.seek(1000 + 9 * 3);
+            assertTrue(cursor.next());
+            assertEquals(9, cursor.getWriteCount());
+            assertEquals(TraceFormat.EXTERNAL_DATA, cursor.getWriteMemory(8));
+            assertEquals(0xfff8, cursor.getWriteAddress(8));
+            assertEquals(0x11, cursor.getWriteValue(8));
+        }
+    }
+
+    @Test
+    public void seeksUseTheCheckpoints() throws IOException {
+        try (TraceReader reader = new TraceReader(write(100))) {
+            TraceCursor cursor = reader.seek(1000 + 57 * 3 - 1);
+            assertTrue(cursor.next());
+            assertEquals(pc(57), cursor.getPc());
+            assertEquals(1000 + 57 * 3, cursor.getCycle());
+
+            cursor = reader.seek(1001);
+            assertTrue(cursor.next());
+            assertEquals(pc(1), cursor.getPc());
+            assertFalse(reader.seek(Long.MAX_VALUE).next());
+        }
+    }
+
+    @Test
+    public void writesToAnAddress() throws IOException {
+        List<String> writes = new ArrayList<>();
+        try (TraceReader reader = new TraceReader(write(30))) {
+            reader.findWrites(TraceFormat.EXTERNAL_DATA, 0xfff8,
+                    (cycle, pc, value) -> writes.add(String.format("%d %04x=%02x", cycle, pc, value)));
+        }
+        assertEquals(String.format("[%d %04x=11, %d %04x=1b, %d %04x=25]", 1027, pc(9), 1057, pc(19), 1087, pc(29)),
+                writes.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void otherFilesAreRejected() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[64]);
+        new TraceReader(file).close();
+    }
+
+    // record i writes i % 10 cells, at 30h of the internal data and at the end of the external data
+    private Path write(int records) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (TraceWriter writer = new TraceWriter(file, 8)) {
+            for (int i = 0; i < records; i++) {
+                for (int write = 0; write < i % 10; write++) {
+                    writer.written(write == 0 ? TraceFormat.INTERNAL_DATA : TraceFormat.EXTERNAL_DATA,
+                            write == 0 ? 0x30 : 0x10000 - write, i + write);
+                }
+                writer.executed(pc(i), 1000 + i * 3);
+            }
+        }
+        return file;
+    }
+
+    // jumps back and forth
+    private static int pc(int record) {
+        return record % 2 == 0 ? record * 0x100 : 0xffff - record;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.opensim51.simulator.trace;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TraceRingTest {
+
+    @Test
+    public void snapshotsHoldTheLastRecords() {
+        TraceRing ring = new TraceRing(8);
+        assertTrue(ring.snapshot(4).isEmpty());
+
+        for (int i = 0; i < 11; i++) {
+            ring.record(0xfff0 + i, i, 0x80 + i, 0xd0, 0x07, 1000L + i);
+        }
+
+        List<TraceRecord> records = ring.snapshot(3);
+        assertEquals(3, records.size());
+        assertEquals(0xfff8, records.get(0).getPc());
+        assertEquals(0x0a, records.get(2).getOpcode());
+        assertEquals(0x8a, records.get(2).getAcc());
+        assertEquals(0xd0, records.get(2).getPsw());
+        assertEquals(0x07, records.get(2).getSp());
+        assertEquals(1010L, records.get(2).getCycle());
+
+        // the three oldest records were overwritten and the next one is about to be
+        assertEquals(7, ring.snapshot(100).size());
+        assertEquals(1004L, ring.snapshot(100).get(0).getCycle());
+    }
+
+    @Test
+    public void snapshotsWhileWriting() throws InterruptedException {
+        TraceRing ring = new TraceRing(64);
+        Thread writer = new Thread(() -> {
+            for (long cycle = 0; cycle < 2_000_000; cycle++) {
+                ring.record((int) cycle & 0xffff, (int) cycle & 0xff, 0, 0, 0, cycle);
+            }
+        });
+        writer.start();
+
+        // a snapshot never holds a record that was being overwritten while it was copied
+        while (writer.isAlive()) {
+            List<TraceRecord> records = ring.snapshot(64);
+            for (int i = 0; i < records.size(); i++) {
+                TraceRecord record = records.get(i);
+                assertEquals(record.getCycle() & 0xffff, record.getPc());
+                assertEquals(record.getCycle() & 0xff, record.getOpcode());
+                if (i > 0) {
+                    assertEquals(records.get(i - 1).getCycle() + 1, record.getCycle());
+                }
+            }
+        }
+        writer.join();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityIsAPowerOfTwo() {
+        new TraceRing(100);
+    }
+
+}